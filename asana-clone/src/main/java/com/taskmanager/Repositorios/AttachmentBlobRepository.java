@@ -0,0 +1,97 @@
+package com.taskmanager.Repositorios;
+
+import com.taskmanager.model.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+/**
+ * ===================================================================
+ * AttachmentBlobRepository - Contenidos de adjuntos deduplicados (N°11)
+ *
+ * refCount se modifica solo con UPDATE atómicos: dos subidas del mismo
+ * archivo al mismo tiempo no pierden referencias.
+ * ===================================================================
+ */
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    /**
+     * Suma una referencia al blob, creándolo si no existe
+     *
+     * MySQL devuelve 1 si insertó la fila (contenido nuevo) y 2 si ya
+     * existía. La fila queda bloqueada hasta el commit de la subida.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO attachment_blobs (hash, size, ref_count, created_at, updated_at) " +
+            "VALUES (:hash, :size, 1, NOW(), NOW()) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = NOW()",
+            nativeQuery = true)
+    int acquire(
+            @Param("hash") String hash,
+            @Param("size") long size
+    );
+
+    /**
+     * Bloquea el hash, exista o no la fila: si no existe, InnoDB toma un
+     * bloqueo de hueco sobre la clave única y un INSERT concurrente del
+     * mismo contenido espera; si otra subida ya la insertó, espera su commit.
+     */
+    @Query(value = "SELECT hash FROM attachment_blobs WHERE hash = :hash FOR UPDATE",
+            nativeQuery = true)
+    Optional<String> lockHash(@Param("hash") String hash);
+
+    /**
+     * Resta una referencia (nunca baja de 0)
+     */
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs " +
+            "SET ref_count = GREATEST(ref_count - 1, 0), updated_at = NOW() " +
+            "WHERE hash = :hash",
+            nativeQuery = true)
+    int release(@Param("hash") String hash);
+
+    /**
+     * Borra el blob solo si nadie lo referencia: 1 = hay que borrar el archivo
+     */
+    @Modifying
+    @Query(value = "DELETE FROM attachment_blobs WHERE hash = :hash AND ref_count = 0",
+            nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    /**
+     * Recalcula refCount contando los adjuntos reales
+     *
+     * Corrige referencias que quedaron de más cuando se borran tareas o
+     * proyectos completos (los adjuntos se eliminan en cascada sin pasar
+     * por AttachmentService). Solo toca blobs sin cambios desde :before,
+     * así no interfiere con subidas en curso.
+     */
+    @Modifying
+    @Query(value = "UPDATE attachment_blobs b " +
+            "SET b.ref_count = (SELECT COUNT(*) FROM attachments a WHERE a.blob_hash = b.hash) " +
+            "WHERE b.updated_at < :before",
+            nativeQuery = true)
+    int recountReferences(@Param("before") LocalDateTime before);
+
+    // Lote de blobs sin referencias
+    @Query("SELECT b.hash FROM AttachmentBlob b WHERE b.refCount = 0 AND b.updatedAt < :before " +
+            "ORDER BY b.updatedAt ASC")
+    List<String> findUnreferenced(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Bytes físicos en disco de los blobs
+    @Query("SELECT COALESCE(SUM(b.size), 0) FROM AttachmentBlob b")
+    long getPhysicalBytes();
+
+    // Bytes físicos de los blobs que usa un usuario (un blob compartido se cuenta una vez)
+    @Query(value = "SELECT COALESCE(SUM(b.size), 0) FROM attachment_blobs b " +
+            "WHERE b.hash IN (SELECT a.blob_hash FROM attachments a WHERE a.uploaded_by_id = :userId)",
+            nativeQuery = true)
+    long getPhysicalBytesByUser(@Param("userId") Long userId);
+}
@@ -1,13 +1,17 @@
 package com.taskmanager.Repositorios;
 
 import com.taskmanager.model.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 /**
  * ===================================================================
  * AttachmentRepository - Repositorio de Adjuntos (N°11)
@@ -18,6 +22,49 @@ import java.util.List;
 @Repository
 public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
 
+    /**
+     * Metadatos de adjunto para exports (sin el archivo)
+     */
+    interface ExportRow {
+        Long getId();
+
+        Long getTaskId();
+
+        Long getUploadedById();
+
+        String getFileName();
+
+        String getMimeType();
+
+        Long getFileSize();
+
+        String getFileExtension();
+
+        String getDescription();
+
+        String getFileHash();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Adjuntos del proyecto en streaming (exports JSON)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TaskRepository.STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT a.id AS id, a.task_id AS taskId, a.uploaded_by_id AS uploadedById, " +
+            "a.file_name AS fileName, a.mime_type AS mimeType, a.file_size AS fileSize, " +
+            "a.file_extension AS fileExtension, a.description AS description, " +
+            "a.file_hash AS fileHash, a.created_at AS createdAt " +
+            "FROM attachments a " +
+            "JOIN tasks t ON t.id = a.task_id " +
+            "WHERE t.project_id = :projectId " +
+            "ORDER BY a.id",
+            nativeQuery = true)
+    Stream<ExportRow> streamExportRows(@Param("projectId") Long projectId);
+
     /**
      * N°11: Busca adjuntos de una tarea ordenados por fecha
      * Query Method: SELECT * FROM attachments WHERE task_id = ? ORDER BY created_at DESC
@@ -71,4 +118,30 @@ public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
      */
     @Query("SELECT SUM(a.downloadCount) FROM Attachment a WHERE a.task.project.id = :projectId")
     Long sumDownloadCountByProjectId(@Param("projectId") Long projectId);
+
+    // ===================================
+    // USO DE ALMACENAMIENTO (lógico vs físico)
+    // ===================================
+
+    /**
+     * Bytes lógicos de un usuario: todo lo que subió, aunque el contenido
+     * esté deduplicado (es lo que cuenta para la cuota del plan)
+     */
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM Attachment a WHERE a.uploadedBy.id = :userId")
+    long sumFileSizeByUploaderId(@Param("userId") Long userId);
+
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM Attachment a")
+    long getLogicalBytes();
+
+    /**
+     * Bytes de archivos sin blob (cada uno ocupa su propio archivo)
+     */
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM Attachment a WHERE a.blobHash IS NULL")
+    long getLegacyBytes();
+
+    @Query("SELECT COALESCE(SUM(a.fileSize), 0) FROM Attachment a " +
+            "WHERE a.blobHash IS NULL AND a.uploadedBy.id = :userId")
+    long getLegacyBytesByUploaderId(@Param("userId") Long userId);
+
+    long countByUploadedById(Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.taskmanager.Repositorios;
+
+import com.taskmanager.model.ChatMention;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ===================================================================
+ * ChatMentionRepository - Bandeja de menciones del chat (N°14)
+ *
+ * Índice (user_id, created_at, message_id, project_id) y contador
+ * desnormalizado de menciones no leídas por usuario
+ * ===================================================================
+ */
+@Repository
+public interface ChatMentionRepository extends JpaRepository<ChatMention, Long> {
+
+    /**
+     * N°14: Registra la mención; devuelve 0 si ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO chat_mentions " +
+            "(user_id, message_id, project_id, sender_id, is_read, created_at) " +
+            "VALUES (:userId, :messageId, :projectId, :senderId, false, NOW())",
+            nativeQuery = true)
+    int insertMention(
+            @Param("userId") Long userId,
+            @Param("messageId") Long messageId,
+            @Param("projectId") Long projectId,
+            @Param("senderId") Long senderId
+    );
+
+    /**
+     * N°14: Menciones de un mensaje (edición y borrado)
+     */
+    List<ChatMention> findByMessageId(Long messageId);
+
+    @Modifying
+    @Query("DELETE FROM ChatMention m WHERE m.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * N°14: Borra solo las no leídas; el total borrado es lo que se descuenta
+     * del contador (una lectura en paralelo ya no las encuentra)
+     */
+    @Modifying
+    @Query("DELETE FROM ChatMention m WHERE m.id IN :ids AND m.isRead = false")
+    int deleteUnreadByIds(@Param("ids") Collection<Long> ids);
+
+    // ===================================================================
+    // BANDEJA (keyset sobre created_at, id)
+    //
+    // Solo menciones de proyectos a los que el usuario sigue teniendo acceso
+    // ===================================================================
+
+    @Query("SELECT m.createdAt FROM ChatMention m WHERE m.id = :mentionId AND m.userId = :userId")
+    Optional<LocalDateTime> findCreatedAtForUser(
+            @Param("mentionId") Long mentionId,
+            @Param("userId") Long userId
+    );
+
+    @Query("SELECT m FROM ChatMention m WHERE m.userId = :userId " +
+            "AND (:unreadOnly = false OR m.isRead = false) " +
+            "AND EXISTS (SELECT p.id FROM Project p LEFT JOIN p.members pm " +
+            "WHERE p.id = m.projectId AND (p.createdBy.id = :userId OR pm.id = :userId)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMention> findInboxPage(
+            @Param("userId") Long userId,
+            @Param("unreadOnly") boolean unreadOnly,
+            Pageable pageable
+    );
+
+    @Query("SELECT m FROM ChatMention m WHERE m.userId = :userId " +
+            "AND (:unreadOnly = false OR m.isRead = false) " +
+            "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :mentionId)) " +
+            "AND EXISTS (SELECT p.id FROM Project p LEFT JOIN p.members pm " +
+            "WHERE p.id = m.projectId AND (p.createdBy.id = :userId OR pm.id = :userId)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<ChatMention> findInboxPageBefore(
+            @Param("userId") Long userId,
+            @Param("unreadOnly") boolean unreadOnly,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("mentionId") Long mentionId,
+            Pageable pageable
+    );
+
+    // ===================================================================
+    // ESTADO DE LECTURA
+    // ===================================================================
+
+    @Modifying
+    @Query("UPDATE ChatMention m SET m.isRead = true, m.readAt = CURRENT_TIMESTAMP " +
+            "WHERE m.id = :mentionId AND m.userId = :userId AND m.isRead = false")
+    int markAsRead(
+            @Param("mentionId") Long mentionId,
+            @Param("userId") Long userId
+    );
+
+    @Modifying
+    @Query("UPDATE ChatMention m SET m.isRead = true, m.readAt = CURRENT_TIMESTAMP " +
+            "WHERE m.userId = :userId AND m.isRead = false")
+    int markAllAsRead(@Param("userId") Long userId);
+
+    /**
+     * N°14: Al leer el chat de un proyecto se leen sus menciones hasta ese mensaje
+     */
+    @Modifying
+    @Query("UPDATE ChatMention m SET m.isRead = true, m.readAt = CURRENT_TIMESTAMP " +
+            "WHERE m.userId = :userId AND m.projectId = :projectId " +
+            "AND m.messageId <= :messageId AND m.isRead = false")
+    int markAsReadUpTo(
+            @Param("userId") Long userId,
+            @Param("projectId") Long projectId,
+            @Param("messageId") Long messageId
+    );
+
+    // ===================================================================
+    // CONTADOR DE NO LEÍDAS (chat_mention_counters)
+    // ===================================================================
+
+    @Query("SELECT c.unreadCount FROM ChatMentionCounter c WHERE c.userId = :userId")
+    Optional<Long> findUnreadCount(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO chat_mention_counters (user_id, unread_count, updated_at) " +
+            "VALUES (:userId, 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE unread_count = unread_count + 1, updated_at = NOW()",
+            nativeQuery = true)
+    int incrementUnread(@Param("userId") Long userId);
+
+    /**
+     * Resta las menciones que realmente cambiaron de estado (nunca baja de 0)
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_mention_counters " +
+            "SET unread_count = GREATEST(unread_count - :amount, 0), updated_at = NOW() " +
+            "WHERE user_id = :userId",
+            nativeQuery = true)
+    int decrementUnread(
+            @Param("userId") Long userId,
+            @Param("amount") long amount
+    );
+}
@@ -4,6 +4,7 @@ import com.taskmanager.model.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -81,28 +82,183 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
     );
 
     /**
-     * N°14: Busca mensajes no leídos por un usuario
+     * N°14: Proyecto de un mensaje activo (sin cargar el mensaje)
+     */
+    @Query("SELECT cm.project.id FROM ChatMessage cm " +
+            "WHERE cm.id = :messageId AND cm.deleted = false")
+    Optional<Long> findActiveProjectId(@Param("messageId") Long messageId);
+
+    /**
+     * N°14: Registra una respuesta en el hilo en una sola sentencia:
+     * incrementa reply_count, actualiza last_reply_at y antepone al autor
+     * en last_replier_ids (sin repetir, máximo 3)
+     */
+    @Modifying
+    @Query(value = "UPDATE chat_messages SET " +
+            "reply_count = reply_count + 1, " +
+            "last_reply_at = :repliedAt, " +
+            "last_replier_ids = SUBSTRING_INDEX(CONCAT_WS(',', :userId, NULLIF(TRIM(BOTH ',' FROM " +
+            "REPLACE(CONCAT(',', COALESCE(last_replier_ids, ''), ','), CONCAT(',', :userId, ','), ',')), '')), ',', 3) " +
+            "WHERE id = :parentId",
+            nativeQuery = true)
+    int registerReply(
+            @Param("parentId") Long parentId,
+            @Param("userId") Long userId,
+            @Param("repliedAt") LocalDateTime repliedAt
+    );
+
+    // ===================================================================
+    // PAGINACIÓN POR CURSOR (índice project_id, created_at, id)
+    // ===================================================================
+
+    /**
+     * N°14: Obtiene created_at de un mensaje del proyecto (para resolver cursores)
+     */
+    @Query("SELECT cm.createdAt FROM ChatMessage cm " +
+            "WHERE cm.id = :messageId AND cm.project.id = :projectId")
+    Optional<LocalDateTime> findCreatedAtInProject(
+            @Param("projectId") Long projectId,
+            @Param("messageId") Long messageId
+    );
+
+    /**
+     * N°14: Obtiene pinned_at de un mensaje fijado (cursor de fijados)
+     */
+    @Query("SELECT cm.pinnedAt FROM ChatMessage cm " +
+            "WHERE cm.id = :messageId AND cm.project.id = :projectId AND cm.pinned = true")
+    Optional<LocalDateTime> findPinnedAtInProject(
+            @Param("projectId") Long projectId,
+            @Param("messageId") Long messageId
+    );
+
+    /**
+     * N°14: Última página de mensajes principales (sin respuestas ni eliminados).
+     * Un cursor que apunta a un mensaje eliminado sigue siendo válido:
+     * findCreatedAtInProject no filtra eliminados.
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND cm.parentMessage IS NULL AND cm.deleted = false " +
+            "ORDER BY cm.createdAt DESC, cm.id DESC")
+    List<ChatMessage> findLatestPage(
+            @Param("projectId") Long projectId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Página de mensajes anteriores al cursor (más antiguos)
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND cm.parentMessage IS NULL AND cm.deleted = false " +
+            "AND (cm.createdAt < :createdAt OR (cm.createdAt = :createdAt AND cm.id < :messageId)) " +
+            "ORDER BY cm.createdAt DESC, cm.id DESC")
+    List<ChatMessage> findPageBefore(
+            @Param("projectId") Long projectId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Página de mensajes posteriores al cursor (más nuevos)
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND cm.parentMessage IS NULL AND cm.deleted = false " +
+            "AND (cm.createdAt > :createdAt OR (cm.createdAt = :createdAt AND cm.id > :messageId)) " +
+            "ORDER BY cm.createdAt ASC, cm.id ASC")
+    List<ChatMessage> findPageAfter(
+            @Param("projectId") Long projectId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Obtiene created_at de una respuesta del hilo (cursor de respuestas)
+     */
+    @Query("SELECT cm.createdAt FROM ChatMessage cm " +
+            "WHERE cm.id = :messageId AND cm.parentMessage.id = :parentId")
+    Optional<LocalDateTime> findCreatedAtInThread(
+            @Param("parentId") Long parentId,
+            @Param("messageId") Long messageId
+    );
+
+    /**
+     * N°14: Primera página de respuestas de un hilo (índice parent_message_id, created_at, id)
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.parentMessage.id = :parentId " +
+            "ORDER BY cm.createdAt ASC, cm.id ASC")
+    List<ChatMessage> findFirstRepliesPage(
+            @Param("parentId") Long parentId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Página de respuestas de un hilo posteriores al cursor
+     * (mismo criterio (created_at, id) que el orden, como el historial principal)
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.parentMessage.id = :parentId " +
+            "AND (cm.createdAt > :createdAt OR (cm.createdAt = :createdAt AND cm.id > :messageId)) " +
+            "ORDER BY cm.createdAt ASC, cm.id ASC")
+    List<ChatMessage> findRepliesPageAfter(
+            @Param("parentId") Long parentId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Página de mensajes fijados
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND cm.pinned = true " +
+            "ORDER BY cm.pinnedAt DESC, cm.id DESC")
+    List<ChatMessage> findPinnedPage(
+            @Param("projectId") Long projectId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Página de mensajes fijados después del cursor
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND cm.pinned = true " +
+            "AND (cm.pinnedAt < :pinnedAt OR (cm.pinnedAt = :pinnedAt AND cm.id < :messageId)) " +
+            "ORDER BY cm.pinnedAt DESC, cm.id DESC")
+    List<ChatMessage> findPinnedPageBefore(
+            @Param("projectId") Long projectId,
+            @Param("pinnedAt") LocalDateTime pinnedAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * N°14: Busca mensajes no leídos por un usuario (página ascendente)
+     * Usa la marca de lectura: rango sobre el índice (project_id, id)
      */
     @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
-            "AND :userId NOT MEMBER OF cm.readByUserIds " +
+            "AND cm.id > :afterId " +
             "AND cm.sender.id != :userId " +
             "AND cm.deleted = false " +
-            "ORDER BY cm.createdAt DESC")
+            "ORDER BY cm.id ASC")
     List<ChatMessage> findUnreadByUserInProject(
             @Param("projectId") Long projectId,
-            @Param("userId") Long userId
+            @Param("userId") Long userId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
     );
 
     /**
      * N°14: Cuenta mensajes no leídos
+     * Conteo por rango sobre el índice (project_id, id)
      */
     @Query("SELECT COUNT(cm) FROM ChatMessage cm WHERE cm.project.id = :projectId " +
-            "AND :userId NOT MEMBER OF cm.readByUserIds " +
+            "AND cm.id > :lastReadMessageId " +
             "AND cm.sender.id != :userId " +
             "AND cm.deleted = false")
     long countUnreadByUserInProject(
             @Param("projectId") Long projectId,
-            @Param("userId") Long userId
+            @Param("userId") Long userId,
+            @Param("lastReadMessageId") Long lastReadMessageId
     );
 
     /**
@@ -116,5 +272,51 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
             @Param("projectId") Long projectId,
             @Param("keyword") String keyword
     );
-}
 
+    /**
+     * N°13: Búsqueda por palabra clave paginada por ID (respaldo sin FULLTEXT, ej: H2)
+     */
+    @Query("SELECT cm FROM ChatMessage cm WHERE cm.project.id = :projectId " +
+            "AND LOWER(cm.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+            "AND cm.deleted = false " +
+            "AND cm.id < :beforeId " +
+            "ORDER BY cm.id DESC")
+    List<ChatMessage> searchMessagesBefore(
+            @Param("projectId") Long projectId,
+            @Param("keyword") String keyword,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // ===================================================================
+    // BÚSQUEDA FULLTEXT (MySQL, índice ft_chat_content)
+    // ===================================================================
+
+    /**
+     * Resultado de búsqueda: ID del mensaje y relevancia
+     */
+    interface SearchHit {
+        Long getId();
+
+        Double getScore();
+    }
+
+    /**
+     * N°13: Resultados ordenados por relevancia, acotados por pageable.
+     * El score depende de estadísticas de toda la tabla y cambia con cada
+     * mensaje nuevo: el ranking se calcula una vez por búsqueda y las
+     * páginas siguientes se sirven desde ChatSearchService, no desde aquí.
+     */
+    @Query(value = "SELECT cm.id AS id, " +
+            "MATCH(cm.content) AGAINST(:query IN BOOLEAN MODE) AS score " +
+            "FROM chat_messages cm " +
+            "WHERE cm.project_id = :projectId AND cm.deleted = false " +
+            "AND MATCH(cm.content) AGAINST(:query IN BOOLEAN MODE) " +
+            "ORDER BY score DESC, cm.id DESC",
+            nativeQuery = true)
+    List<SearchHit> searchFullText(
+            @Param("projectId") Long projectId,
+            @Param("query") String query,
+            Pageable pageable
+    );
+}
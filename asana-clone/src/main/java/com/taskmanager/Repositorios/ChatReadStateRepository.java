@@ -0,0 +1,80 @@
+package com.taskmanager.Repositorios;
+
+import com.taskmanager.model.ChatReadState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * ===================================================================
+ * ChatReadStateRepository - Marcas de lectura del chat (N°14)
+ *
+ * Una fila por (usuario, proyecto) con el último mensaje leído
+ * ===================================================================
+ */
+@Repository
+public interface ChatReadStateRepository extends JpaRepository<ChatReadState, Long> {
+
+    /**
+     * N°14: Busca la marca de lectura de un usuario en un proyecto
+     */
+    Optional<ChatReadState> findByUserIdAndProjectId(Long userId, Long projectId);
+
+    /**
+     * N°14: Obtiene solo el ID del último mensaje leído
+     */
+    @Query("SELECT s.lastReadMessageId FROM ChatReadState s " +
+            "WHERE s.userId = :userId AND s.projectId = :projectId")
+    Optional<Long> findLastReadMessageId(
+            @Param("userId") Long userId,
+            @Param("projectId") Long projectId
+    );
+
+    /**
+     * N°14: Avanza la marca de lectura en una sola sentencia (upsert).
+     * GREATEST evita que una lectura tardía haga retroceder la marca.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO chat_read_states (user_id, project_id, last_read_message_id, updated_at) " +
+            "VALUES (:userId, :projectId, :messageId, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_read_message_id = GREATEST(last_read_message_id, VALUES(last_read_message_id)), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    int upsertLastReadMessageId(
+            @Param("userId") Long userId,
+            @Param("projectId") Long projectId,
+            @Param("messageId") Long messageId
+    );
+
+    // ===================================================================
+    // MIGRACIÓN DESDE chat_message_read_by (lecturas por mensaje)
+    // ===================================================================
+
+    /**
+     * 1 si la tabla anterior sigue en la base (ddl-auto=update no la borra)
+     */
+    @Query(value = "SELECT COUNT(*) FROM information_schema.tables " +
+            "WHERE table_schema = DATABASE() AND table_name = 'chat_message_read_by'",
+            nativeQuery = true)
+    long countLegacyReadByTable();
+
+    /**
+     * Crea las marcas a partir de las lecturas anteriores: por cada
+     * (usuario, proyecto), el último mensaje que leyó o que envió él mismo
+     */
+    @Modifying
+    @Query(value = "INSERT INTO chat_read_states (user_id, project_id, last_read_message_id, updated_at) " +
+            "SELECT r.user_id, r.project_id, MAX(r.message_id), NOW() FROM (" +
+            "SELECT rb.user_id AS user_id, cm.project_id AS project_id, cm.id AS message_id " +
+            "FROM chat_message_read_by rb JOIN chat_messages cm ON cm.id = rb.message_id " +
+            "UNION ALL " +
+            "SELECT cm.sender_id, cm.project_id, cm.id FROM chat_messages cm" +
+            ") r GROUP BY r.user_id, r.project_id",
+            nativeQuery = true)
+    int backfillFromLegacyReadBy();
+}
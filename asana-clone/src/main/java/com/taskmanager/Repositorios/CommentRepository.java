@@ -1,10 +1,17 @@
 package com.taskmanager.Repositorios;
 
 import com.taskmanager.model.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -18,4 +25,45 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      * Cuenta el número de comentarios de una tarea
      */
     long countByTaskId(Long taskId);
+
+    /**
+     * Comentario plano para exports
+     */
+    interface ExportRow {
+        Long getId();
+
+        Long getTaskId();
+
+        Long getParentCommentId();
+
+        Long getAuthorId();
+
+        String getAuthorName();
+
+        String getContent();
+
+        Boolean getEdited();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Comentarios activos del proyecto en streaming (exports JSON)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = TaskRepository.STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT c.id AS id, c.task_id AS taskId, c.parent_comment_id AS parentCommentId, " +
+            "c.author_id AS authorId, CONCAT(u.first_name, ' ', u.last_name) AS authorName, " +
+            "c.content AS content, c.edited AS edited, c.created_at AS createdAt, c.updated_at AS updatedAt " +
+            "FROM comments c " +
+            "JOIN tasks t ON t.id = c.task_id " +
+            "JOIN users u ON u.id = c.author_id " +
+            "WHERE t.project_id = :projectId AND c.deleted = false " +
+            "ORDER BY c.id",
+            nativeQuery = true)
+    Stream<ExportRow> streamExportRows(@Param("projectId") Long projectId);
 }
\ No newline at end of file
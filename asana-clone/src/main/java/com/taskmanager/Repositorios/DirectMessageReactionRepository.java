@@ -0,0 +1,110 @@
+package com.taskmanager.Repositorios;
+
+import com.taskmanager.model.DirectMessageReaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * ===================================================================
+ * DirectMessageReactionRepository - Reacciones de mensajes directos
+ *
+ * Cada operación toca una sola fila; la restricción única
+ * (message_id, user_id, emoji) resuelve las reacciones concurrentes
+ * ===================================================================
+ */
+@Repository
+public interface DirectMessageReactionRepository extends JpaRepository<DirectMessageReaction, Long> {
+
+    /**
+     * Total por emoji leído de la tabla desnormalizada
+     */
+    interface EmojiCount {
+        String getEmoji();
+
+        Integer getTotal();
+    }
+
+    /**
+     * Inserta la reacción; devuelve 0 si ya existía
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO dm_reactions (message_id, user_id, emoji, created_at) " +
+            "VALUES (:messageId, :userId, :emoji, NOW())",
+            nativeQuery = true)
+    int insertReaction(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId,
+            @Param("emoji") String emoji
+    );
+
+    /**
+     * Elimina la reacción; devuelve 0 si no existía
+     */
+    @Modifying
+    @Query("DELETE FROM DirectMessageReaction r WHERE r.messageId = :messageId " +
+            "AND r.userId = :userId AND r.emoji = :emoji")
+    int deleteReaction(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId,
+            @Param("emoji") String emoji
+    );
+
+    /**
+     * Suma 1 al total del emoji (crea la fila si no existe)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dm_reaction_counts (message_id, emoji, reaction_count) " +
+            "VALUES (:messageId, :emoji, 1) " +
+            "ON DUPLICATE KEY UPDATE reaction_count = reaction_count + 1",
+            nativeQuery = true)
+    int incrementCount(
+            @Param("messageId") Long messageId,
+            @Param("emoji") String emoji
+    );
+
+    /**
+     * Resta 1 al total del emoji
+     */
+    @Modifying
+    @Query(value = "UPDATE dm_reaction_counts SET reaction_count = reaction_count - 1 " +
+            "WHERE message_id = :messageId AND emoji = :emoji AND reaction_count > 0",
+            nativeQuery = true)
+    int decrementCount(
+            @Param("messageId") Long messageId,
+            @Param("emoji") String emoji
+    );
+
+    /**
+     * Quita el emoji del resumen cuando su total llega a 0
+     */
+    @Modifying
+    @Query(value = "DELETE FROM dm_reaction_counts " +
+            "WHERE message_id = :messageId AND emoji = :emoji AND reaction_count <= 0",
+            nativeQuery = true)
+    int deleteEmptyCount(
+            @Param("messageId") Long messageId,
+            @Param("emoji") String emoji
+    );
+
+    /**
+     * Resumen de reacciones de un mensaje
+     */
+    @Query(value = "SELECT emoji AS emoji, reaction_count AS total FROM dm_reaction_counts " +
+            "WHERE message_id = :messageId",
+            nativeQuery = true)
+    List<EmojiCount> findCountsByMessageId(@Param("messageId") Long messageId);
+
+    /**
+     * Emojis con los que reaccionó un usuario
+     */
+    @Query("SELECT r.emoji FROM DirectMessageReaction r WHERE r.messageId = :messageId AND r.userId = :userId")
+    List<String> findEmojisByMessageIdAndUserId(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId
+    );
+}
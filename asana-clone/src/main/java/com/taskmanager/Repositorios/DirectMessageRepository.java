@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,58 @@ public interface DirectMessageRepository extends JpaRepository<DirectMessage, Lo
             Pageable pageable
     );
 
+    /**
+     * Última página de una conversación (índice conversation_id, created_at, id)
+     */
+    @Query("SELECT dm FROM DirectMessage dm " +
+            "JOIN FETCH dm.sender JOIN FETCH dm.receiver " +
+            "WHERE dm.conversationId = :conversationId " +
+            "ORDER BY dm.createdAt DESC, dm.id DESC")
+    List<DirectMessage> findLatestPage(
+            @Param("conversationId") String conversationId,
+            Pageable pageable
+    );
+
+    /**
+     * Página de mensajes anteriores al cursor (más antiguos)
+     */
+    @Query("SELECT dm FROM DirectMessage dm " +
+            "JOIN FETCH dm.sender JOIN FETCH dm.receiver " +
+            "WHERE dm.conversationId = :conversationId " +
+            "AND (dm.createdAt < :createdAt OR (dm.createdAt = :createdAt AND dm.id < :messageId)) " +
+            "ORDER BY dm.createdAt DESC, dm.id DESC")
+    List<DirectMessage> findPageBefore(
+            @Param("conversationId") String conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * Página de mensajes posteriores al cursor (más nuevos)
+     */
+    @Query("SELECT dm FROM DirectMessage dm " +
+            "JOIN FETCH dm.sender JOIN FETCH dm.receiver " +
+            "WHERE dm.conversationId = :conversationId " +
+            "AND (dm.createdAt > :createdAt OR (dm.createdAt = :createdAt AND dm.id > :messageId)) " +
+            "ORDER BY dm.createdAt ASC, dm.id ASC")
+    List<DirectMessage> findPageAfter(
+            @Param("conversationId") String conversationId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("messageId") Long messageId,
+            Pageable pageable
+    );
+
+    /**
+     * Fecha de un mensaje de la conversación (resuelve el cursor)
+     */
+    @Query("SELECT dm.createdAt FROM DirectMessage dm " +
+            "WHERE dm.id = :messageId AND dm.conversationId = :conversationId")
+    Optional<LocalDateTime> findCreatedAtInConversation(
+            @Param("conversationId") String conversationId,
+            @Param("messageId") Long messageId
+    );
+
     /**
      * Busca todas las conversaciones de un usuario
      */
@@ -71,16 +124,102 @@ public interface DirectMessageRepository extends JpaRepository<DirectMessage, Lo
             Pageable pageable
     );
 
+    /**
+     * Marca un mensaje como leído solo si seguía sin leer: 1 si este llamado
+     * lo cambió, 0 si ya estaba leído (lo marcó otra petición o la lectura
+     * de toda la conversación). Así cada mensaje se descuenta una sola vez.
+     */
+    @Modifying
+    @Query("UPDATE DirectMessage dm SET dm.isRead = true, dm.readAt = :readAt " +
+            "WHERE dm.id = :messageId " +
+            "AND dm.receiver.id = :userId " +
+            "AND dm.isRead = false " +
+            "AND dm.deleted = false")
+    int markAsReadIfUnread(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId,
+            @Param("readAt") LocalDateTime readAt
+    );
+
     /**
      * Marca todos los mensajes como leídos
+     * (índice conversation_id, receiver_id, is_read: solo recorre los no leídos)
      */
     @Modifying // FIX: Necesario para que JPA ejecute la consulta UPDATE
     @Query("UPDATE DirectMessage dm SET dm.isRead = true, dm.readAt = CURRENT_TIMESTAMP " +
             "WHERE dm.conversationId = :conversationId " +
             "AND dm.receiver.id = :userId " +
-            "AND dm.isRead = false")
-    void markAllAsReadInConversation(
+            "AND dm.isRead = false " +
+            "AND dm.deleted = false")
+    int markAllAsReadInConversation(
             @Param("conversationId") String conversationId,
             @Param("userId") Long userId
     );
-}
\ No newline at end of file
+
+    // ===================================================================
+    // EDICIÓN Y BORRADO: UPDATE de columnas puntuales
+    //
+    // Guardar la entidad completa reescribiría is_read con el valor leído
+    // al cargarla y pisaría una lectura confirmada en el medio.
+    // ===================================================================
+
+    /**
+     * Edita el contenido de un mensaje activo del autor
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DirectMessage dm SET dm.content = :content, dm.edited = true, " +
+            "dm.editedAt = :editedAt, dm.updatedAt = :editedAt " +
+            "WHERE dm.id = :messageId " +
+            "AND dm.sender.id = :senderId " +
+            "AND dm.deleted = false")
+    int updateContent(
+            @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId,
+            @Param("content") String content,
+            @Param("editedAt") LocalDateTime editedAt
+    );
+
+    /**
+     * Elimina (lógicamente) un mensaje activo del autor que seguía sin leer:
+     * 1 = hay que descontarlo de los no leídos del receptor. Las lecturas
+     * exigen deleted = false, así que el mensaje se descuenta una sola vez.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DirectMessage dm SET dm.deleted = true, dm.content = :content, dm.updatedAt = :deletedAt " +
+            "WHERE dm.id = :messageId " +
+            "AND dm.sender.id = :senderId " +
+            "AND dm.deleted = false " +
+            "AND dm.isRead = false")
+    int softDeleteIfUnread(
+            @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId,
+            @Param("content") String content,
+            @Param("deletedAt") LocalDateTime deletedAt
+    );
+
+    /**
+     * Elimina (lógicamente) un mensaje activo del autor
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DirectMessage dm SET dm.deleted = true, dm.content = :content, dm.updatedAt = :deletedAt " +
+            "WHERE dm.id = :messageId " +
+            "AND dm.sender.id = :senderId " +
+            "AND dm.deleted = false")
+    int softDelete(
+            @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId,
+            @Param("content") String content,
+            @Param("deletedAt") LocalDateTime deletedAt
+    );
+
+    /**
+     * Verifica que el usuario participe en un mensaje activo (sin cargarlo)
+     */
+    @Query("SELECT COUNT(dm) > 0 FROM DirectMessage dm " +
+            "WHERE dm.id = :messageId AND dm.deleted = false " +
+            "AND (dm.sender.id = :userId OR dm.receiver.id = :userId)")
+    boolean existsActiveForParticipant(
+            @Param("messageId") Long messageId,
+            @Param("userId") Long userId
+    );
+}
@@ -0,0 +1,129 @@
+package com.taskmanager.Repositorios;
+
+import com.taskmanager.model.DmConversation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ===================================================================
+ * DmConversationRepository - Bandeja materializada de mensajes directos
+ *
+ * Todas las escrituras son sentencias atómicas de una fila
+ * ===================================================================
+ */
+@Repository
+public interface DmConversationRepository extends JpaRepository<DmConversation, Long> {
+
+    /**
+     * Bandeja del usuario, conversación más reciente primero
+     */
+    @Query("SELECT c FROM DmConversation c JOIN FETCH c.otherUser " +
+            "WHERE c.userId = :userId " +
+            "ORDER BY c.lastMessageAt DESC")
+    List<DmConversation> findInbox(@Param("userId") Long userId);
+
+    /**
+     * De los candidatos, los contactos del usuario: con quien tiene una
+     * conversación o comparte algún proyecto (project_members incluye al creador)
+     */
+    @Query(value = "SELECT c.other_user_id FROM dm_conversations c " +
+            "WHERE c.user_id = :userId AND c.other_user_id IN (:candidateIds) " +
+            "UNION " +
+            "SELECT b.user_id FROM project_members a " +
+            "JOIN project_members b ON b.project_id = a.project_id " +
+            "WHERE a.user_id = :userId AND b.user_id IN (:candidateIds)",
+            nativeQuery = true)
+    List<Long> findContactIds(
+            @Param("userId") Long userId,
+            @Param("candidateIds") Collection<Long> candidateIds
+    );
+
+    /**
+     * Total de no leídos del usuario (una fila por conversación)
+     */
+    @Query("SELECT COALESCE(SUM(c.unreadCount), 0) FROM DmConversation c WHERE c.userId = :userId")
+    long sumUnreadByUser(@Param("userId") Long userId);
+
+    /**
+     * Registra un mensaje en la fila de un participante.
+     * El último mensaje solo avanza (GREATEST); los campos de vista previa
+     * se asignan antes que last_message_id porque MySQL evalúa en orden.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dm_conversations " +
+            "(user_id, other_user_id, conversation_id, last_message_id, last_message_preview, " +
+            "last_sender_id, last_message_at, unread_count, updated_at) " +
+            "VALUES (:userId, :otherUserId, :conversationId, :messageId, :preview, " +
+            ":senderId, :sentAt, :unreadIncrement, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_message_preview = IF(VALUES(last_message_id) > last_message_id, VALUES(last_message_preview), last_message_preview), " +
+            "last_sender_id = IF(VALUES(last_message_id) > last_message_id, VALUES(last_sender_id), last_sender_id), " +
+            "last_message_at = IF(VALUES(last_message_id) > last_message_id, VALUES(last_message_at), last_message_at), " +
+            "last_message_id = GREATEST(last_message_id, VALUES(last_message_id)), " +
+            "unread_count = unread_count + VALUES(unread_count), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    int upsertLastMessage(
+            @Param("userId") Long userId,
+            @Param("otherUserId") Long otherUserId,
+            @Param("conversationId") String conversationId,
+            @Param("messageId") Long messageId,
+            @Param("preview") String preview,
+            @Param("senderId") Long senderId,
+            @Param("sentAt") LocalDateTime sentAt,
+            @Param("unreadIncrement") int unreadIncrement
+    );
+
+    /**
+     * Resta los mensajes que realmente pasaron a leídos (nunca baja de 0)
+     */
+    @Modifying
+    @Query(value = "UPDATE dm_conversations " +
+            "SET unread_count = GREATEST(unread_count - :amount, 0), updated_at = NOW() " +
+            "WHERE user_id = :userId AND conversation_id = :conversationId",
+            nativeQuery = true)
+    int decrementUnread(
+            @Param("userId") Long userId,
+            @Param("conversationId") String conversationId,
+            @Param("amount") int amount
+    );
+
+    /**
+     * Actualiza la vista previa si el mensaje editado/eliminado es el último
+     */
+    @Modifying
+    @Query("UPDATE DmConversation c SET c.lastMessagePreview = :preview " +
+            "WHERE c.conversationId = :conversationId AND c.lastMessageId = :messageId")
+    int updatePreview(
+            @Param("conversationId") String conversationId,
+            @Param("messageId") Long messageId,
+            @Param("preview") String preview
+    );
+
+    /**
+     * Reconstruye la bandeja desde direct_messages (primer arranque)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO dm_conversations " +
+            "(user_id, other_user_id, conversation_id, last_message_id, last_message_preview, " +
+            "last_sender_id, last_message_at, unread_count, updated_at) " +
+            "SELECT p.user_id, p.other_user_id, m.conversation_id, m.id, LEFT(m.content, 200), " +
+            "m.sender_id, m.created_at, " +
+            "(SELECT COUNT(*) FROM direct_messages u WHERE u.conversation_id = m.conversation_id " +
+            "AND u.receiver_id = p.user_id AND u.is_read = false AND u.deleted = false), NOW() " +
+            "FROM (SELECT x.user_id, x.other_user_id, MAX(x.id) AS last_id FROM (" +
+            "SELECT sender_id AS user_id, receiver_id AS other_user_id, id FROM direct_messages WHERE deleted = false " +
+            "UNION ALL " +
+            "SELECT receiver_id, sender_id, id FROM direct_messages WHERE deleted = false) x " +
+            "GROUP BY x.user_id, x.other_user_id) p " +
+            "JOIN direct_messages m ON m.id = p.last_id",
+            nativeQuery = true)
+    int rebuildFromMessages();
+}
@@ -2,10 +2,15 @@ package com.taskmanager.Repositorios;
 
 import com.taskmanager.model.*;
 import com.taskmanager.model.enums.*;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -73,4 +78,95 @@ public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
 
     // Contar exports completados por usuario
     long countByRequestedByIdAndStatus(Long userId, ExportStatus status);
+
+    // Export vigente con los mismos datos (reutilización por fingerprint)
+    Optional<ExportJob> findFirstByFingerprintAndStatusAndExpiresAtAfterOrderByCompletedAtDesc(
+            String fingerprint,
+            ExportStatus status,
+            LocalDateTime now
+    );
+
+    /**
+     * Bloquea el export origen de una reutilización (SELECT ... FOR UPDATE)
+     * si sigue completado y vigente. El lock dura hasta el commit del job
+     * nuevo: la limpieza no puede expirar el origen ni contar 0 referencias
+     * al archivo mientras el job nuevo todavía no es visible.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM ExportJob e WHERE e.id = :jobId AND e.status = 'COMPLETED' AND e.expiresAt > :now")
+    Optional<ExportJob> lockReusable(@Param("jobId") Long jobId, @Param("now") LocalDateTime now);
+
+    // Referencias a un archivo: solo se borra del disco cuando llega a 0
+    @Query("SELECT COUNT(e) FROM ExportJob e WHERE e.filePath = :filePath AND e.status = 'COMPLETED'")
+    long countFileReferences(@Param("filePath") String filePath);
+
+    // Cancela solo si sigue pendiente o en proceso: nunca pisa un job ya terminado
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ExportJob e SET e.status = 'CANCELLED', e.errorMessage = :reason, e.completedAt = :now " +
+            "WHERE e.id = :jobId AND e.status IN ('PENDING', 'PROCESSING')")
+    int markCancelled(@Param("jobId") Long jobId, @Param("now") LocalDateTime now, @Param("reason") String reason);
+
+    // Suma descargas acumuladas en memoria (ExportDownloadCounter)
+    @Modifying
+    @Query("UPDATE ExportJob e SET e.downloadCount = e.downloadCount + :delta, " +
+            "e.lastDownloadedAt = :downloadedAt WHERE e.id = :jobId")
+    int incrementDownloadCount(
+            @Param("jobId") Long jobId,
+            @Param("delta") int delta,
+            @Param("downloadedAt") LocalDateTime downloadedAt
+    );
+
+    // ===================================
+    // LIMPIEZA Y CUOTAS (ExportCleanupService)
+    // ===================================
+
+    // Lote de exports completados y vencidos
+    @Query("SELECT e FROM ExportJob e WHERE e.status = 'COMPLETED' AND e.expiresAt < :now " +
+            "ORDER BY e.expiresAt ASC")
+    List<ExportJob> findExpiredBatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Lote de jobs terminados sin archivo (fallidos, cancelados, expirados) anteriores a una fecha
+    @Query("SELECT e.id FROM ExportJob e WHERE e.status IN :statuses AND e.createdAt < :before " +
+            "ORDER BY e.id ASC")
+    List<Long> findFinishedIdsCreatedBefore(
+            @Param("statuses") List<ExportStatus> statuses,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
+    /**
+     * Bytes de exports completados por usuario
+     */
+    interface UserUsage {
+        Long getUserId();
+
+        Long getTotalBytes();
+    }
+
+    @Query("SELECT e.requestedBy.id AS userId, SUM(e.fileSize) AS totalBytes FROM ExportJob e " +
+            "WHERE e.status = 'COMPLETED' GROUP BY e.requestedBy.id HAVING SUM(e.fileSize) > :quota")
+    List<UserUsage> findUsersOverQuota(@Param("quota") long quota);
+
+    // Exports completados del menos al más recientemente usado
+    @Query("SELECT e FROM ExportJob e WHERE e.status = 'COMPLETED' AND e.requestedBy.id = :userId " +
+            "ORDER BY COALESCE(e.lastDownloadedAt, e.completedAt) ASC, e.id ASC")
+    List<ExportJob> findLeastRecentlyUsedByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT e FROM ExportJob e WHERE e.status = 'COMPLETED' " +
+            "ORDER BY COALESCE(e.lastDownloadedAt, e.completedAt) ASC, e.id ASC")
+    List<ExportJob> findLeastRecentlyUsed(Pageable pageable);
+
+    // Bytes reales en disco: un archivo compartido se cuenta una vez
+    @Query(value = "SELECT COALESCE(SUM(f.size), 0) FROM (" +
+            "SELECT MAX(e.file_size) AS size FROM export_jobs e " +
+            "WHERE e.status = 'COMPLETED' AND e.file_path IS NOT NULL GROUP BY e.file_path) f",
+            nativeQuery = true)
+    long getStoredBytes();
+
+    // Libera un export por cuota (solo si sigue completado)
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob e SET e.status = 'EXPIRED', e.expiresAt = :now, e.errorMessage = :reason " +
+            "WHERE e.id = :jobId AND e.status = 'COMPLETED'")
+    int markEvicted(@Param("jobId") Long jobId, @Param("now") LocalDateTime now, @Param("reason") String reason);
 }
\ No newline at end of file
@@ -36,6 +36,47 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
             "WHERE p.createdBy.id = :userId OR m.id = :userId")
     List<Project> findAllByUserId(@Param("userId") Long userId);
 
+    /**
+     * IDs de los proyectos del usuario (creador o miembro), para exports en bundle
+     */
+    @Query("SELECT DISTINCT p.id FROM Project p " +
+            "LEFT JOIN p.members m " +
+            "WHERE p.createdBy.id = :userId OR m.id = :userId " +
+            "ORDER BY p.id")
+    List<Long> findAccessibleProjectIds(@Param("userId") Long userId);
+
+    /**
+     * Verifica acceso (creador o miembro) sin cargar el proyecto ni sus miembros
+     */
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Project p " +
+            "LEFT JOIN p.members m " +
+            "WHERE p.id = :projectId AND (p.createdBy.id = :userId OR m.id = :userId)")
+    boolean existsUserAccess(@Param("projectId") Long projectId, @Param("userId") Long userId);
+
+    /**
+     * Proyecto compartido entre dos usuarios (solo ID y nombre)
+     */
+    interface SharedProject {
+        Long getId();
+
+        String getName();
+    }
+
+    /**
+     * Proyectos en los que ambos usuarios son miembros.
+     * Auto-join de project_members por el índice (user_id, project_id);
+     * el creador siempre se agrega como miembro al crear el proyecto.
+     */
+    @Query(value = "SELECT p.id AS id, p.name AS name FROM project_members a " +
+            "JOIN project_members b ON b.project_id = a.project_id " +
+            "JOIN projects p ON p.id = a.project_id " +
+            "WHERE a.user_id = :userId AND b.user_id = :otherUserId",
+            nativeQuery = true)
+    List<SharedProject> findSharedProjects(
+            @Param("userId") Long userId,
+            @Param("otherUserId") Long otherUserId
+    );
+
     List<Project> findByNameContainingIgnoreCase(String name);
 
     List<Project> findByStatus(Project.ProjectStatus status);
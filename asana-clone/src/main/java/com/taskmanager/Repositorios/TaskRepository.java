@@ -2,19 +2,98 @@ package com.taskmanager.Repositorios;
 
 import com.taskmanager.model.Task;
 import com.taskmanager.model.Task.TaskStatus;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    /**
+     * Fetch size para que MySQL Connector/J entregue las filas de a una
+     * (streaming) en lugar de cargar todo el resultado en memoria
+     */
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    /**
+     * Separador de listas concatenadas en una columna (etiquetas, IDs):
+     * un caracter de control que no aparece en el texto de una etiqueta
+     */
+    String LIST_SEPARATOR = "\u001F";
+
+    /**
+     * group_concat_max_len de la sesión durante un export (el valor por
+     * defecto, 1024 bytes, corta las listas sin avisar). Una lista que llega
+     * a este largo puede estar cortada.
+     */
+    int EXPORT_GROUP_CONCAT_MAX_LEN = 1_048_576;
+
+    /**
+     * Profundidad máxima de subtareas que recorre el export en árbol
+     * (corta un ciclo parent_task_id accidental antes del límite de MySQL)
+     */
+    int MAX_EXPORT_DEPTH = 50;
+
+    /**
+     * Fila plana de tarea para exports (sin entidades ni contexto de persistencia)
+     */
+    interface ExportRow {
+        Long getId();
+
+        Long getParentTaskId();
+
+        String getTitle();
+
+        String getDescription();
+
+        String getStatus();
+
+        String getPriority();
+
+        Long getProcessId();
+
+        String getProcessName();
+
+        Long getCreatedById();
+
+        String getAssignees();
+
+        // IDs de asignados separados por LIST_SEPARATOR (solo streamExportRows)
+        String getAssigneeIds();
+
+        // Etiquetas separadas por LIST_SEPARATOR (solo streamExportRows)
+        String getTags();
+
+        // Nivel en el árbol de subtareas, 0 = raíz (solo streamExportRowsGroupedByParent)
+        Integer getDepth();
+
+        LocalDateTime getStartDate();
+
+        LocalDateTime getDueDate();
+
+        LocalDateTime getCompletedAt();
+
+        Integer getCompletionPercentage();
+
+        Integer getEstimatedHours();
+
+        Integer getActualHours();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+    }
+
     // ===================================================================
     // 📊 MÉTODOS DE MANIPULACIÓN DE POSICIÓN (KANBAN)
     // ===================================================================
@@ -44,6 +123,132 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
             "ORDER BY t.createdAt DESC")
     List<Task> findByProjectIdForExport(@Param("projectId") Long projectId);
 
+    /**
+     * Sube group_concat_max_len en la conexión del export.
+     * Llamar dentro de la transacción del export y antes de abrir el
+     * stream: con un resultado en streaming abierto no se puede ejecutar
+     * otra sentencia en la misma conexión.
+     */
+    @Modifying
+    @Query(value = "SET SESSION group_concat_max_len = " + EXPORT_GROUP_CONCAT_MAX_LEN,
+            nativeQuery = true)
+    void raiseGroupConcatLimit();
+
+    /**
+     * Tareas del proyecto para exports, en streaming y ordenadas por ID.
+     * Los asignados y etiquetas llegan concatenados en la misma fila (sin N+1);
+     * los IDs y etiquetas van en subconsultas para no multiplicar filas.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT t.id AS id, t.parent_task_id AS parentTaskId, t.title AS title, " +
+            "t.description AS description, t.status AS status, t.priority AS priority, " +
+            "t.process_id AS processId, p.name AS processName, t.created_by_id AS createdById, " +
+            "GROUP_CONCAT(CONCAT(u.first_name, ' ', u.last_name) ORDER BY u.first_name SEPARATOR ', ') AS assignees, " +
+            "(SELECT GROUP_CONCAT(ta2.user_id ORDER BY ta2.user_id SEPARATOR '" + LIST_SEPARATOR + "') " +
+            "FROM task_assignees ta2 WHERE ta2.task_id = t.id) AS assigneeIds, " +
+            "(SELECT GROUP_CONCAT(tg.tag ORDER BY tg.tag SEPARATOR '" + LIST_SEPARATOR + "') " +
+            "FROM task_tags tg WHERE tg.task_id = t.id) AS tags, " +
+            "t.start_date AS startDate, t.due_date AS dueDate, t.completed_at AS completedAt, " +
+            "t.completion_percentage AS completionPercentage, t.estimated_hours AS estimatedHours, " +
+            "t.actual_hours AS actualHours, t.created_at AS createdAt, t.updated_at AS updatedAt " +
+            "FROM tasks t " +
+            "JOIN processes p ON p.id = t.process_id " +
+            "LEFT JOIN task_assignees ta ON ta.task_id = t.id " +
+            "LEFT JOIN users u ON u.id = ta.user_id " +
+            "WHERE t.project_id = :projectId " +
+            "GROUP BY t.id, p.name " +
+            "ORDER BY t.id",
+            nativeQuery = true)
+    Stream<ExportRow> streamExportRows(@Param("projectId") Long projectId);
+
+    /**
+     * Igual que streamExportRows, pero en orden de árbol: cada subtarea sale
+     * justo después de su tarea padre, a cualquier profundidad (el orden lo
+     * resuelve MySQL con un CTE recursivo, no la memoria del servidor).
+     * path concatena los IDs de la raíz a la tarea con ancho fijo, así que
+     * ordenar por path deja a cada rama completa debajo de su padre.
+     * Las tareas cuyo padre no está en el proyecto se tratan como raíces.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "WITH RECURSIVE tree (id, depth, path) AS ( " +
+            "SELECT r.id, 0, CAST(LPAD(r.id, 20, '0') AS CHAR(2000)) FROM tasks r " +
+            "WHERE r.project_id = :projectId AND (r.parent_task_id IS NULL OR NOT EXISTS " +
+            "(SELECT 1 FROM tasks rp WHERE rp.id = r.parent_task_id AND rp.project_id = :projectId)) " +
+            "UNION ALL " +
+            "SELECT c.id, tree.depth + 1, CONCAT(tree.path, '/', LPAD(c.id, 20, '0')) FROM tasks c " +
+            "JOIN tree ON c.parent_task_id = tree.id " +
+            "WHERE c.project_id = :projectId AND tree.depth < " + MAX_EXPORT_DEPTH + ") " +
+            "SELECT t.id AS id, t.parent_task_id AS parentTaskId, tree.depth AS depth, t.title AS title, " +
+            "t.description AS description, t.status AS status, t.priority AS priority, " +
+            "t.process_id AS processId, p.name AS processName, t.created_by_id AS createdById, " +
+            "GROUP_CONCAT(CONCAT(u.first_name, ' ', u.last_name) ORDER BY u.first_name SEPARATOR ', ') AS assignees, " +
+            "t.start_date AS startDate, t.due_date AS dueDate, t.completed_at AS completedAt, " +
+            "t.completion_percentage AS completionPercentage, t.estimated_hours AS estimatedHours, " +
+            "t.actual_hours AS actualHours, t.created_at AS createdAt, t.updated_at AS updatedAt " +
+            "FROM tree " +
+            "JOIN tasks t ON t.id = tree.id " +
+            "JOIN processes p ON p.id = t.process_id " +
+            "LEFT JOIN task_assignees ta ON ta.task_id = t.id " +
+            "LEFT JOIN users u ON u.id = ta.user_id " +
+            "GROUP BY t.id, p.name, tree.depth, tree.path " +
+            "ORDER BY tree.path",
+            nativeQuery = true)
+    Stream<ExportRow> streamExportRowsGroupedByParent(@Param("projectId") Long projectId);
+
+    /**
+     * Cantidad de tareas por estado de un proyecto
+     */
+    interface StatusCount {
+        TaskStatus getStatus();
+
+        Long getTotal();
+    }
+
+    @Query("SELECT t.status AS status, COUNT(t) AS total FROM Task t " +
+            "WHERE t.project.id = :projectId GROUP BY t.status")
+    List<StatusCount> countByStatusForProject(@Param("projectId") Long projectId);
+
+    /**
+     * Versión de los datos exportables de un proyecto: cambia cuando se crea,
+     * edita o elimina algo de lo que incluye un export (null si no existe).
+     * Las cantidades cubren borrados y cambios de relaciones que no tocan updated_at.
+     * Incluye el último cambio de los usuarios que el export imprime (creador,
+     * miembros, asignados, autores de tareas y comentarios): renombrar a
+     * alguien o cambiar su email invalida el archivo reutilizable.
+     */
+    @Query(value = "SELECT CONCAT_WS('|', p.updated_at, " +
+            "(SELECT COUNT(*) FROM project_members pm WHERE pm.project_id = p.id), " +
+            "(SELECT CONCAT(COUNT(*), '@', COALESCE(MAX(pr.updated_at), '')) " +
+            "   FROM processes pr WHERE pr.project_id = p.id), " +
+            "(SELECT CONCAT(COUNT(*), '@', COALESCE(MAX(t.updated_at), '')) " +
+            "   FROM tasks t WHERE t.project_id = p.id), " +
+            "(SELECT COUNT(*) FROM task_assignees ta JOIN tasks t ON t.id = ta.task_id " +
+            "   WHERE t.project_id = p.id), " +
+            "(SELECT CONCAT(COUNT(*), '@', COALESCE(MAX(c.updated_at), '')) " +
+            "   FROM comments c JOIN tasks t ON t.id = c.task_id " +
+            "   WHERE t.project_id = p.id AND c.deleted = false), " +
+            "(SELECT CONCAT(COUNT(*), '@', COALESCE(MAX(a.created_at), '')) " +
+            "   FROM attachments a JOIN tasks t ON t.id = a.task_id " +
+            "   WHERE t.project_id = p.id), " +
+            "(SELECT COALESCE(MAX(u.updated_at), '') FROM users u " +
+            "   WHERE u.id = p.created_by_id " +
+            "   OR u.id IN (SELECT pm.user_id FROM project_members pm WHERE pm.project_id = p.id) " +
+            "   OR u.id IN (SELECT ta.user_id FROM task_assignees ta JOIN tasks t ON t.id = ta.task_id " +
+            "      WHERE t.project_id = p.id) " +
+            "   OR u.id IN (SELECT t.created_by_id FROM tasks t WHERE t.project_id = p.id) " +
+            "   OR u.id IN (SELECT c.author_id FROM comments c JOIN tasks t ON t.id = c.task_id " +
+            "      WHERE t.project_id = p.id))) " +
+            "FROM projects p WHERE p.id = :projectId",
+            nativeQuery = true)
+    String findExportDataVersion(@Param("projectId") Long projectId);
+
     /**
      * Desplaza las posiciones de las tareas dentro de un rango específico
      * y en el mismo proceso (columna). Usado para movimientos internos de arrastrar y soltar.
@@ -176,6 +381,7 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     // ===================================================================
 
     long countByProjectIdAndStatus(Long projectId, TaskStatus status);
+    long countByProjectId(Long projectId);
     long countByParentTaskId(Long parentTaskId);
 
     @Query("SELECT COUNT(t) FROM Task t JOIN t.assignees a " +
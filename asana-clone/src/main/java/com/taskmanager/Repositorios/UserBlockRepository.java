@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,22 @@ public interface UserBlockRepository extends JpaRepository<UserBlock, Long> {
             @Param("blockedId") Long blockedId
     );
 
+    /**
+     * IDs de los usuarios bloqueados por un usuario (caché de UserBlockService)
+     */
+    @Query("SELECT ub.blocked.id FROM UserBlock ub WHERE ub.blocker.id = :blockerId")
+    List<Long> findBlockedIdsByBlockerId(@Param("blockerId") Long blockerId);
+
+    /**
+     * De los candidatos, los que bloquearon a un usuario
+     */
+    @Query("SELECT ub.blocker.id FROM UserBlock ub " +
+            "WHERE ub.blocked.id = :blockedId AND ub.blocker.id IN :blockerIds")
+    List<Long> findBlockerIdsAmong(
+            @Param("blockedId") Long blockedId,
+            @Param("blockerIds") Collection<Long> blockerIds
+    );
+
     /**
      * Busca un bloqueo específico
      */
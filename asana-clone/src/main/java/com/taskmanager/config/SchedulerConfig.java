@@ -5,6 +5,11 @@ package com.taskmanager.config;
 // Ubicación: com.taskmanager.config
 // ===================================
 
+import com.taskmanager.service.AttachmentService;
+import com.taskmanager.service.ChatRecentCache;
+import com.taskmanager.service.DmPresenceService;
+import com.taskmanager.service.ExportCleanupService;
+import com.taskmanager.service.ExportDownloadCounter;
 import com.taskmanager.service.SchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +34,11 @@ import java.util.concurrent.Executor;
 public class SchedulerConfig {
 
     private final SchedulerService schedulerService;
+    private final ChatRecentCache chatRecentCache;
+    private final DmPresenceService dmPresenceService;
+    private final ExportDownloadCounter exportDownloadCounter;
+    private final ExportCleanupService exportCleanupService;
+    private final AttachmentService attachmentService;
 
     /**
      * Task Scheduler para tareas programadas
@@ -115,4 +125,54 @@ public class SchedulerConfig {
         log.info("Running scheduled task: cleanupOldReminders");
         schedulerService.cleanupOldReminders();
     }
-}
\ No newline at end of file
+
+    /**
+     * Liberar ventanas de chat en memoria sin lecturas recientes
+     * Se ejecuta cada 5 minutos
+     */
+    @Scheduled(fixedRate = 300000)
+    public void evictIdleChatWindows() {
+        log.debug("Running scheduled task: evictIdleChatWindows");
+        chatRecentCache.evictIdle();
+    }
+
+    /**
+     * Limpiar indicadores de escritura vencidos y presencia antigua
+     * Se ejecuta cada minuto
+     */
+    @Scheduled(fixedRate = 60000)
+    public void evictExpiredPresence() {
+        log.debug("Running scheduled task: evictExpiredPresence");
+        dmPresenceService.evictExpired();
+    }
+
+    /**
+     * Guardar contadores de descargas de exports acumulados en memoria
+     * Se ejecuta cada minuto
+     */
+    @Scheduled(fixedRate = 60000)
+    public void flushExportDownloadCounts() {
+        log.debug("Running scheduled task: flushExportDownloadCounts");
+        exportDownloadCounter.flush();
+    }
+
+    /**
+     * Borrar exports vencidos y aplicar cuotas de disco
+     * Se ejecuta cada hora (minuto 30)
+     */
+    @Scheduled(cron = "0 30 * * * *")
+    public void cleanupExports() {
+        log.info("Running scheduled task: cleanupExports");
+        exportCleanupService.cleanup();
+    }
+
+    /**
+     * Recalcular referencias de blobs de adjuntos y borrar los que no usa nadie
+     * Se ejecuta todos los días a las 4 AM
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void reconcileAttachmentBlobs() {
+        log.info("Running scheduled task: reconcileAttachmentBlobs");
+        attachmentService.reconcileBlobs();
+    }
+}
@@ -1,7 +1,9 @@
 package com.taskmanager.config;
 
 import com.taskmanager.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,6 +37,10 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
 
+    // Mismos orígenes que el endpoint /ws (WebSocketConfig)
+    @Value("${cors.allowed-origins}")
+    private String[] allowedOrigins;
+
     // Constructor explícito con @Qualifier para resolver ambigüedad de beans
     public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter,
                           @Qualifier("customUserDetailsService") UserDetailsService userDetailsService) {
@@ -54,12 +60,18 @@ public class SecurityConfig {
                                 "/actuator/health"
                         ).permitAll()
 
+                        // WebSocket: el handshake es público, el JWT se valida en el frame CONNECT
+                        .requestMatchers("/ws/**").permitAll()
+
                         // 🚀 NUEVA REGLA: Permitir a cualquier usuario autenticado acceder a NOTIFICACIONES
                         .requestMatchers("/api/notifications/**").authenticated()
 
                         // REGLA EXISTENTE: Restringir rutas de administrador a ADMIN
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
 
+                        // Despachos async (SSE de exports): la petición original ya se autenticó
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // REGLA DE CIERRE: Todo lo demás requiere autenticación
                         .anyRequest().authenticated()
                 )
@@ -97,12 +109,8 @@ public ForwardedHeaderFilter forwardedHeaderFilter() {
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        // **CORRECCIÓN:** AÑADIR LAS URLS DE PRODUCCIÓN DE RENDER
-    configuration.setAllowedOrigins(Arrays.asList(
-        "http://localhost:3000", // Desarrollo
-        "http://localhost:5173", // Desarrollo
-        "https://elfronted.onrender.com" // 🚀 URL PÚBLICA DE TU FRONTEND
-    ));
+        // Orígenes permitidos desde cors.allowed-origins (desarrollo y frontend de Render)
+        configuration.setAllowedOrigins(Arrays.asList(allowedOrigins));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
@@ -13,6 +13,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -228,6 +229,30 @@ class AttachmentDownloadController {
 
     private final AttachmentService attachmentService;
 
+    /**
+     * Uso de almacenamiento de los archivos del usuario actual
+     * GET /api/attachments/storage
+     *
+     * logicalBytes es lo que cuenta para la cuota del plan; physicalBytes es
+     * lo que ocupan en disco (el contenido repetido se guarda una vez)
+     */
+    @GetMapping("/storage")
+    public ResponseEntity<AttachmentDTO.StorageUsage> getStorageUsage(
+            @AuthenticationPrincipal User currentUser) {
+        log.info("GET /api/attachments/storage - User: {}", currentUser.getId());
+        return ResponseEntity.ok(attachmentService.getStorageUsage(currentUser.getId()));
+    }
+
+    /**
+     * Uso de almacenamiento de todo el sistema (solo administradores)
+     * GET /api/attachments/storage/total
+     */
+    @GetMapping("/storage/total")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AttachmentDTO.StorageUsage> getTotalStorageUsage() {
+        return ResponseEntity.ok(attachmentService.getStorageUsage());
+    }
+
     /**
      * N°11: Descarga un archivo
      * GET /api/attachments/{id}/download
@@ -0,0 +1,90 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.dto.ChatMessageDTO;
+import com.taskmanager.model.User;
+import com.taskmanager.service.ChatMentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST de la bandeja de menciones
+ *
+ * CUMPLE REQUERIMIENTO N°14: Chat del proyecto
+ *
+ * Mensajes de todos los proyectos en los que se menciona al usuario actual
+ */
+@RestController
+@RequestMapping("/api/chat/mentions")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class ChatMentionController {
+
+    private final ChatMentionService mentionService;
+
+    /**
+     * N°14: Bandeja de menciones (más recientes primero)
+     * GET /api/chat/mentions?before=120&size=20&unreadOnly=false
+     */
+    @GetMapping
+    public ResponseEntity<ChatMessageDTO.MentionPage> getMentions(
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @AuthenticationPrincipal User currentUser) {
+        log.info("GET /api/chat/mentions?before={}&size={}", before, size);
+
+        try {
+            return ResponseEntity.ok(
+                    mentionService.getMentions(currentUser.getId(), before, size, unreadOnly)
+            );
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .build();
+        }
+    }
+
+    /**
+     * N°14: Total de menciones no leídas
+     * GET /api/chat/mentions/unread/count
+     */
+    @GetMapping("/unread/count")
+    public ResponseEntity<Long> countUnreadMentions(
+            @AuthenticationPrincipal User currentUser) {
+        log.info("GET /api/chat/mentions/unread/count");
+
+        return ResponseEntity.ok(mentionService.getUnreadCount(currentUser.getId()));
+    }
+
+    /**
+     * N°14: Marca una mención como leída
+     * PUT /api/chat/mentions/{id}/read
+     */
+    @PutMapping("/{id}/read")
+    public ResponseEntity<Void> markAsRead(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User currentUser) {
+        log.info("PUT /api/chat/mentions/{}/read", id);
+
+        mentionService.markAsRead(id, currentUser.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * N°14: Marca todas las menciones como leídas
+     * PUT /api/chat/mentions/read-all
+     */
+    @PutMapping("/read-all")
+    public ResponseEntity<Void> markAllAsRead(
+            @AuthenticationPrincipal User currentUser) {
+        log.info("PUT /api/chat/mentions/read-all");
+
+        mentionService.markAllAsRead(currentUser.getId());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -65,20 +65,23 @@ public class ChatMessageController {
     }
 
     /**
-     * N°14: Obtiene mensajes del proyecto
-     * GET /api/projects/{projectId}/chat/messages?page=0&size=50
+     * N°14: Obtiene mensajes del proyecto (paginación por cursor)
+     * GET /api/projects/{projectId}/chat/messages?before=120&size=50
+     * GET /api/projects/{projectId}/chat/messages?after=170&size=50
      */
     @GetMapping
-    public ResponseEntity<List<ChatMessageDTO.Response>> getMessages(
+    public ResponseEntity<ChatMessageDTO.CursorPage> getMessages(
             @PathVariable Long projectId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
             @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal User currentUser) {
-        log.info("GET /api/projects/{}/chat/messages?page={}&size={}", projectId, page, size);
+        log.info("GET /api/projects/{}/chat/messages?before={}&after={}&size={}",
+                projectId, before, after, size);
 
         try {
-            List<ChatMessageDTO.Response> messages = chatMessageService.getProjectMessages(
-                    projectId, currentUser.getId(), page, size
+            ChatMessageDTO.CursorPage messages = chatMessageService.getProjectMessages(
+                    projectId, currentUser.getId(), before, after, size
             );
 
             return ResponseEntity.ok(messages);
@@ -91,18 +94,19 @@ public class ChatMessageController {
     }
 
     /**
-     * N°14: Obtiene mensajes recientes (últimas 24h)
-     * GET /api/projects/{projectId}/chat/messages/recent
+     * N°14: Obtiene los mensajes más recientes
+     * GET /api/projects/{projectId}/chat/messages/recent?limit=50
      */
     @GetMapping("/recent")
-    public ResponseEntity<List<ChatMessageDTO.Response>> getRecentMessages(
+    public ResponseEntity<ChatMessageDTO.CursorPage> getRecentMessages(
             @PathVariable Long projectId,
+            @RequestParam(defaultValue = "50") int limit,
             @AuthenticationPrincipal User currentUser) {
-        log.info("GET /api/projects/{}/chat/messages/recent", projectId);
+        log.info("GET /api/projects/{}/chat/messages/recent?limit={}", projectId, limit);
 
         try {
-            List<ChatMessageDTO.Response> messages = chatMessageService
-                    .getRecentMessages(projectId, currentUser.getId());
+            ChatMessageDTO.CursorPage messages = chatMessageService
+                    .getRecentMessages(projectId, currentUser.getId(), limit);
 
             return ResponseEntity.ok(messages);
 
@@ -114,19 +118,21 @@ public class ChatMessageController {
     }
 
     /**
-     * N°14: Obtiene respuestas a un mensaje
-     * GET /api/projects/{projectId}/chat/messages/{id}/replies
+     * N°14: Obtiene respuestas a un mensaje (se cargan por hilo, bajo demanda)
+     * GET /api/projects/{projectId}/chat/messages/{id}/replies?after=0&size=50
      */
     @GetMapping("/{id}/replies")
-    public ResponseEntity<List<ChatMessageDTO.Response>> getReplies(
+    public ResponseEntity<ChatMessageDTO.CursorPage> getReplies(
             @PathVariable Long projectId,
             @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal User currentUser) {
-        log.info("GET /api/projects/{}/chat/messages/{}/replies", projectId, id);
+        log.info("GET /api/projects/{}/chat/messages/{}/replies?after={}", projectId, id, after);
 
         try {
-            List<ChatMessageDTO.Response> replies = chatMessageService
-                    .getMessageReplies(id, currentUser.getId());
+            ChatMessageDTO.CursorPage replies = chatMessageService
+                    .getMessageReplies(id, currentUser.getId(), after, size);
 
             return ResponseEntity.ok(replies);
 
@@ -200,7 +206,7 @@ public class ChatMessageController {
      * POST /api/projects/{projectId}/chat/messages/{id}/reactions
      */
     @PostMapping("/{id}/reactions")
-    public ResponseEntity<ChatMessageDTO.Response> addReaction(
+    public ResponseEntity<ChatMessageDTO.ReactionSummary> addReaction(
             @PathVariable Long projectId,
             @PathVariable Long id,
             @Valid @RequestBody ChatMessageDTO.ReactionRequest request,
@@ -209,11 +215,11 @@ public class ChatMessageController {
                 projectId, id, request.getEmoji());
 
         try {
-            ChatMessageDTO.Response message = chatMessageService.addReaction(
+            ChatMessageDTO.ReactionSummary summary = chatMessageService.addReaction(
                     id, request.getEmoji(), currentUser.getId()
             );
 
-            return ResponseEntity.ok(message);
+            return ResponseEntity.ok(summary);
 
         } catch (Exception e) {
             return ResponseEntity
@@ -227,7 +233,7 @@ public class ChatMessageController {
      * DELETE /api/projects/{projectId}/chat/messages/{id}/reactions/{emoji}
      */
     @DeleteMapping("/{id}/reactions/{emoji}")
-    public ResponseEntity<ChatMessageDTO.Response> removeReaction(
+    public ResponseEntity<ChatMessageDTO.ReactionSummary> removeReaction(
             @PathVariable Long projectId,
             @PathVariable Long id,
             @PathVariable String emoji,
@@ -235,11 +241,11 @@ public class ChatMessageController {
         log.info("DELETE /api/projects/{}/chat/messages/{}/reactions/{}", projectId, id, emoji);
 
         try {
-            ChatMessageDTO.Response message = chatMessageService.removeReaction(
+            ChatMessageDTO.ReactionSummary summary = chatMessageService.removeReaction(
                     id, emoji, currentUser.getId()
             );
 
-            return ResponseEntity.ok(message);
+            return ResponseEntity.ok(summary);
 
         } catch (Exception e) {
             return ResponseEntity
@@ -305,17 +311,19 @@ public class ChatMessageController {
 
     /**
      * N°14: Obtiene mensajes fijados
-     * GET /api/projects/{projectId}/chat/messages/pinned
+     * GET /api/projects/{projectId}/chat/messages/pinned?before=80&size=50
      */
     @GetMapping("/pinned")
-    public ResponseEntity<List<ChatMessageDTO.Response>> getPinnedMessages(
+    public ResponseEntity<ChatMessageDTO.CursorPage> getPinnedMessages(
             @PathVariable Long projectId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal User currentUser) {
-        log.info("GET /api/projects/{}/chat/messages/pinned", projectId);
+        log.info("GET /api/projects/{}/chat/messages/pinned?before={}", projectId, before);
 
         try {
-            List<ChatMessageDTO.Response> messages = chatMessageService
-                    .getPinnedMessages(projectId, currentUser.getId());
+            ChatMessageDTO.CursorPage messages = chatMessageService
+                    .getPinnedMessages(projectId, currentUser.getId(), before, size);
 
             return ResponseEntity.ok(messages);
 
@@ -342,18 +350,20 @@ public class ChatMessageController {
     }
 
     /**
-     * N°14: Obtiene mensajes no leídos
-     * GET /api/projects/{projectId}/chat/messages/unread
+     * N°14: Obtiene mensajes no leídos (desde la marca de lectura)
+     * GET /api/projects/{projectId}/chat/messages/unread?after=150&size=50
      */
     @GetMapping("/unread")
-    public ResponseEntity<List<ChatMessageDTO.Response>> getUnreadMessages(
+    public ResponseEntity<ChatMessageDTO.CursorPage> getUnreadMessages(
             @PathVariable Long projectId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal User currentUser) {
-        log.info("GET /api/projects/{}/chat/messages/unread", projectId);
+        log.info("GET /api/projects/{}/chat/messages/unread?after={}", projectId, after);
 
         try {
-            List<ChatMessageDTO.Response> messages = chatMessageService
-                    .getUnreadMessages(projectId, currentUser.getId());
+            ChatMessageDTO.CursorPage messages = chatMessageService
+                    .getUnreadMessages(projectId, currentUser.getId(), after, size);
 
             return ResponseEntity.ok(messages);
 
@@ -387,20 +397,29 @@ public class ChatMessageController {
 
     /**
      * N°13: Busca mensajes
-     * GET /api/projects/{projectId}/chat/messages/search?keyword=bug
+     * GET /api/projects/{projectId}/chat/messages/search?keyword=bug&cursor=...&size=20
+     *
+     * Resultados por relevancia con fragmento resaltado; nextCursor pagina
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ChatMessageDTO.Response>> searchMessages(
+    public ResponseEntity<ChatMessageDTO.SearchResult> searchMessages(
             @PathVariable Long projectId,
             @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @AuthenticationPrincipal User currentUser) {
         log.info("GET /api/projects/{}/chat/messages/search?keyword={}", projectId, keyword);
 
         try {
-            List<ChatMessageDTO.Response> messages = chatMessageService
-                    .searchMessages(projectId, keyword, currentUser.getId());
+            ChatMessageDTO.SearchResult result = chatMessageService
+                    .searchMessages(projectId, keyword, cursor, size, currentUser.getId());
 
-            return ResponseEntity.ok(messages);
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .build();
 
         } catch (Exception e) {
             return ResponseEntity
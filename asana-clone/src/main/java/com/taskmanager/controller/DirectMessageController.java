@@ -13,6 +13,7 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,6 +25,8 @@ public class DirectMessageController {
 
     private final DirectMessageService messageService;
 
+    private static final int MAX_PRESENCE_USERS = 100;
+
     /**
      * Envía un mensaje directo
      */
@@ -111,6 +114,31 @@ public class DirectMessageController {
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * Historial de una conversación con cursor
+     * GET /api/direct-messages/conversations/{otherUserId}/messages?before=120&size=50
+     * GET /api/direct-messages/conversations/{otherUserId}/messages?after=170&size=50
+     */
+    @GetMapping("/conversations/{otherUserId}/messages")
+    public ResponseEntity<DirectMessageDTO.CursorPage> getConversationHistory(
+            @PathVariable Long otherUserId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal User currentUser) {
+        log.info("GET /api/direct-messages/conversations/{}/messages?before={}&after={}&size={} - User: {}",
+                otherUserId, before, after, size, currentUser.getId());
+
+        try {
+            return ResponseEntity.ok(messageService.getConversationHistory(
+                    currentUser.getId(), otherUserId, before, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (com.taskmanager.exception.ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     /**
      * Edita un mensaje
      */
@@ -156,7 +184,7 @@ public class DirectMessageController {
      * Agrega reacción
      */
     @PostMapping("/{messageId}/reactions")
-    public ResponseEntity<DirectMessageDTO.Response> addReaction(
+    public ResponseEntity<DirectMessageDTO.ReactionSummary> addReaction(
             @PathVariable Long messageId,
             @Valid @RequestBody DirectMessageDTO.ReactionRequest request,
             @AuthenticationPrincipal User currentUser) {
@@ -164,12 +192,12 @@ public class DirectMessageController {
                 messageId, currentUser.getId());
 
         try {
-            DirectMessageDTO.Response message = messageService.addReaction(
+            DirectMessageDTO.ReactionSummary summary = messageService.addReaction(
                     messageId,
                     request.getEmoji(),
                     currentUser.getId()
             );
-            return ResponseEntity.ok(message);
+            return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -179,7 +207,7 @@ public class DirectMessageController {
      * Remueve reacción
      */
     @DeleteMapping("/{messageId}/reactions/{emoji}")
-    public ResponseEntity<DirectMessageDTO.Response> removeReaction(
+    public ResponseEntity<DirectMessageDTO.ReactionSummary> removeReaction(
             @PathVariable Long messageId,
             @PathVariable String emoji,
             @AuthenticationPrincipal User currentUser) {
@@ -187,12 +215,12 @@ public class DirectMessageController {
                 messageId, emoji, currentUser.getId());
 
         try {
-            DirectMessageDTO.Response message = messageService.removeReaction(
+            DirectMessageDTO.ReactionSummary summary = messageService.removeReaction(
                     messageId,
                     emoji,
                     currentUser.getId()
             );
-            return ResponseEntity.ok(message);
+            return ResponseEntity.ok(summary);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
@@ -236,4 +264,21 @@ public class DirectMessageController {
         long count = messageService.countUnreadMessages(currentUser.getId());
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    /**
+     * Presencia (en línea / última conexión) de varios usuarios, desde memoria
+     * Solo se devuelven contactos del usuario que no tengan bloqueos
+     */
+    @GetMapping("/presence")
+    public ResponseEntity<List<DirectMessageDTO.Presence>> getPresence(
+            @RequestParam Set<Long> userIds,
+            @AuthenticationPrincipal User currentUser) {
+        log.debug("GET /api/direct-messages/presence - User: {}", currentUser.getId());
+
+        if (userIds.size() > MAX_PRESENCE_USERS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(messageService.getPresence(currentUser.getId(), userIds));
+    }
+}
@@ -0,0 +1,79 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.dto.DirectMessageDTO;
+import com.taskmanager.model.DirectMessage;
+import com.taskmanager.model.User;
+import com.taskmanager.service.DirectMessageService;
+import com.taskmanager.service.DmBroadcastService;
+import com.taskmanager.service.DmPresenceService;
+import com.taskmanager.service.UserBlockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+
+/**
+ * Señales STOMP de mensajes directos (cliente -> /app/...)
+ *
+ * "Escribiendo..." se reenvía a la cola del destinatario. Los bloqueos se
+ * consultan en el caché de UserBlockService; el contacto (conversación o
+ * proyecto en común) se verifica solo cuando la señal se va a reenviar.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class DirectMessageSocketController {
+
+    private final DmPresenceService presenceService;
+    private final DmBroadcastService broadcastService;
+    private final UserBlockService blockService;
+    private final DirectMessageService messageService;
+
+    @MessageMapping("/direct-messages/typing")
+    public void typing(@Payload DirectMessageDTO.TypingRequest request, Principal principal) {
+        User sender = extractUser(principal);
+        Long receiverId = request.getReceiverId();
+
+        if (sender == null || receiverId == null || receiverId.equals(sender.getId())) {
+            return;
+        }
+
+        // Un usuario bloqueado no ve nada del otro lado
+        if (blockService.isBlocked(receiverId, sender.getId())) {
+            return;
+        }
+
+        boolean isTyping = !Boolean.FALSE.equals(request.getTyping());
+        if (!presenceService.updateTyping(sender.getId(), receiverId, isTyping)) {
+            return;
+        }
+
+        // Mismo criterio que la presencia: solo contactos y sin bloqueos
+        if (!messageService.isVisibleContact(sender.getId(), receiverId)) {
+            presenceService.clearTyping(sender.getId(), receiverId);
+            return;
+        }
+
+        broadcastService.sendSignal(receiverId, DirectMessageDTO.Signal.builder()
+                .type(DirectMessageDTO.SignalType.TYPING)
+                .userId(sender.getId())
+                .conversationId(DirectMessage.generateConversationId(sender.getId(), receiverId))
+                .typing(isTyping)
+                .expiresInMs(isTyping ? DmPresenceService.TYPING_TTL_MILLIS : null)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken token
+                && token.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+}
@@ -8,10 +8,20 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -24,6 +34,7 @@ import java.util.List;
 public class ExportController {
 
     private final ExportService exportService;
+    private final ExportCleanupService exportCleanupService;
 
     /**
      * ✅ SIMPLIFICADO: Solicitar exportación de proyecto
@@ -47,6 +58,27 @@ public class ExportController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(export);
     }
 
+    /**
+     * Exportar varios proyectos en un ZIP (sin projectIds: todos mis proyectos)
+     * POST /api/exports/bundle
+     */
+    @PostMapping("/bundle")
+    public ResponseEntity<ExportDTO.Response> requestBundleExport(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody ExportDTO.CreateRequest request
+    ) {
+        log.info("🗜️ Bundle export request - Projects: {}, User: {}",
+                request.getProjectIds(), currentUser.getEmail());
+
+        request.setType(ExportType.PROJECTS_BUNDLE);
+        request.setReferenceId(null);
+
+        ExportDTO.Response export = exportService
+                .requestExport(currentUser.getId(), request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(export);
+    }
+
     /**
      * ✅ SIMPLIFICADO: Obtener mis exportaciones
      */
@@ -63,29 +95,168 @@ public class ExportController {
     }
 
     /**
-     * ✅ SIMPLIFICADO: Descargar archivo
+     * Estado de un export
+     * GET /api/exports/{jobId}
      */
-    @GetMapping("/{jobId}/download")
-    public ResponseEntity<byte[]> downloadExport(
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportDTO.Response> getExport(
             @AuthenticationPrincipal User currentUser,
             @PathVariable Long jobId
-    ) throws IOException {
-        log.info("⬇️ Download export {} - User: {}", jobId, currentUser.getEmail());
+    ) {
+        return ResponseEntity.ok(exportService.getExportById(jobId, currentUser.getId()));
+    }
 
-        ExportDTO.Response export = exportService
-                .getExportById(jobId, currentUser.getId());
+    /**
+     * Cancelar un export pendiente o en proceso
+     * DELETE /api/exports/{jobId}
+     */
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<ExportDTO.Response> cancelExport(
+            @AuthenticationPrincipal User currentUser,
+            @PathVariable Long jobId
+    ) {
+        log.info("🛑 Cancel export {} - User: {}", jobId, currentUser.getEmail());
+
+        return ResponseEntity.ok(exportService.cancelExport(jobId, currentUser.getId()));
+    }
+
+    /**
+     * Progreso en vivo de mis exports (Server-Sent Events, evento "progress")
+     * GET /api/exports/progress/stream
+     */
+    @GetMapping(value = "/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProgress(@AuthenticationPrincipal User currentUser) {
+        log.info("📡 Export progress stream - User: {}", currentUser.getEmail());
+        return exportService.subscribeProgress(currentUser.getId());
+    }
+
+    /**
+     * Métricas de la cola de exports (solo administradores)
+     * GET /api/exports/queue/stats
+     */
+    @GetMapping("/queue/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExportDTO.QueueStats> getQueueStats() {
+        return ResponseEntity.ok(exportService.getQueueStats());
+    }
+
+    /**
+     * Ejecutar la limpieza de exports ahora (solo administradores)
+     * POST /api/exports/cleanup
+     */
+    @PostMapping("/cleanup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ExportDTO.CleanupReport> runCleanup() {
+        return ResponseEntity.ok(exportCleanupService.cleanup());
+    }
 
-        byte[] fileData = exportService
-                .downloadExport(jobId, currentUser.getId());
+    /**
+     * Descargar archivo (admite Range / If-Range para reanudar descargas)
+     *
+     * El archivo se envía con FileChannel.transferTo, sin cargarlo en memoria.
+     * No se devuelve un Resource: Spring aplica el Range de la petición a
+     * cualquier Resource con 200, y con If-Range desactualizado o varios
+     * rangos el cliente recibiría un 206 del archivo nuevo en vez del
+     * archivo completo.
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> downloadExport(
+            @AuthenticationPrincipal User currentUser,
+            @PathVariable Long jobId,
+            @RequestHeader HttpHeaders requestHeaders
+    ) throws IOException {
+        log.info("⬇️ Download export {} - User: {}", jobId, currentUser.getEmail());
 
+        ExportService.Download download = exportService
+                .prepareDownload(jobId, currentUser.getId());
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
         headers.setContentDisposition(
                 ContentDisposition.attachment()
-                        .filename(export.getFileName())
+                        .filename(download.getFileName())
                         .build()
         );
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setETag(download.getETag());
+        headers.setLastModified(download.getLastModified());
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            return rangeNotSatisfiable(download);
+        }
+
+        // Sin rango, varios rangos o If-Range desactualizado: archivo completo
+        if (ranges.size() != 1 || !ifRangeMatches(requestHeaders, download)) {
+            exportService.recordDownload(jobId);
+            headers.setContentLength(download.getSize());
+            return ResponseEntity.ok().headers(headers)
+                    .body(transfer(download, 0, download.getSize()));
+        }
+
+        HttpRange range = ranges.get(0);
+        long start = range.getRangeStart(download.getSize());
+        if (start >= download.getSize()) {
+            return rangeNotSatisfiable(download);
+        }
+        long end = range.getRangeEnd(download.getSize());
+
+        // Reanudar una descarga no cuenta como una nueva
+        if (start == 0) {
+            exportService.recordDownload(jobId);
+        }
+
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + download.getSize());
+        headers.setContentLength(end - start + 1);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers)
+                .body(transfer(download, start, end - start + 1));
+    }
+
+    /**
+     * Copia [position, position + count) del archivo a la respuesta.
+     * El archivo se abre antes de responder: si la limpieza lo borra
+     * mientras se envía, el descriptor abierto sigue siendo válido.
+     */
+    private StreamingResponseBody transfer(ExportService.Download download, long position, long count)
+            throws IOException {
+        FileChannel channel = FileChannel.open(download.getPath(), StandardOpenOption.READ);
+        return outputStream -> {
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long sent = 0;
+                while (sent < count) {
+                    long written = channel.transferTo(position + sent, count - sent, target);
+                    if (written <= 0) {
+                        break;
+                    }
+                    sent += written;
+                }
+            }
+        };
+    }
+
+    private boolean ifRangeMatches(HttpHeaders requestHeaders, ExportService.Download download) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(download.getETag());
+        }
+        try {
+            long since = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            // Las fechas HTTP tienen precisión de segundos
+            return download.getLastModified() / 1000 <= since / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
 
-        return ResponseEntity.ok().headers(headers).body(fileData);
+    private ResponseEntity<Void> rangeNotSatisfiable(ExportService.Download download) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + download.getSize())
+                .build();
     }
 }
\ No newline at end of file
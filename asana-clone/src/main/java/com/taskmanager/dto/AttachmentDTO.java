@@ -75,4 +75,20 @@ public class AttachmentDTO {
         private String thumbnailUrl;
         private LocalDateTime createdAt;
     }
-}
\ No newline at end of file
+
+    /**
+     * Uso de almacenamiento de adjuntos
+     * logicalBytes: suma de los archivos subidos (cuota del plan)
+     * physicalBytes: bytes en disco (un contenido repetido se cuenta una vez)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StorageUsage {
+        private Long attachments;
+        private Long logicalBytes;
+        private Long physicalBytes;
+        private Long deduplicatedBytes; // logicalBytes - physicalBytes
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.validation.constraints.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 /**
@@ -48,7 +49,7 @@ public class ChatMessageDTO {
     }
 
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Response {
@@ -74,7 +75,10 @@ public class ChatMessageDTO {
         private Map<String, Integer> reactionCounts;
 
         private Integer replyCount;
-        private Set<Long> readByUserIds;
+
+        // Vista previa del hilo
+        private LocalDateTime lastReplyAt;
+        private List<Long> lastReplierIds;
 
         private Boolean pinned;
         private LocalDateTime pinnedAt;
@@ -84,6 +88,128 @@ public class ChatMessageDTO {
         private LocalDateTime updatedAt;
     }
 
+    /**
+     * Página de mensajes con cursores por ID de mensaje
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CursorPage {
+        private List<Response> messages;
+
+        // Usar como ?before= para cargar mensajes más antiguos
+        private Long beforeCursor;
+
+        // Usar como ?after= para cargar mensajes más nuevos
+        private Long afterCursor;
+
+        private Boolean hasMore;
+    }
+
+    /**
+     * Mención del usuario actual (bandeja de menciones)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mention {
+        private Long id;
+        private Long projectId;
+        private String projectName;
+        private Response message;
+        private Boolean isRead;
+        private LocalDateTime createdAt;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MentionPage {
+        private List<Mention> mentions;
+
+        // ID de la última mención de la página (usar como ?before=)
+        private Long nextCursor;
+
+        private Boolean hasMore;
+        private Long unreadCount;
+    }
+
+    /**
+     * Resultado de búsqueda con relevancia y fragmento resaltado
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchHit {
+        private Response message;
+        private Double score;
+
+        // Fragmento HTML escapado con <mark> sobre los términos encontrados
+        private String snippet;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchResult {
+        private List<SearchHit> hits;
+
+        // Cursor opaco para la siguiente página (?cursor=)
+        private String nextCursor;
+
+        private Boolean hasMore;
+    }
+
+    /**
+     * Evento publicado en /topic/projects/{projectId}/chat
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private EventType type;
+        private Long projectId;
+        private Long messageId;
+        private Response message;
+
+        // Solo en REACTION_UPDATED: resumen sin el mensaje completo
+        private ReactionSummary reactions;
+
+        private LocalDateTime occurredAt;
+    }
+
+    public enum EventType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        REACTION_UPDATED,
+        PINNED,
+        UNPINNED
+    }
+
+    /**
+     * Resumen de reacciones devuelto al agregar o quitar una reacción
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReactionSummary {
+        private Long messageId;
+
+        // Reacciones: emoji -> cantidad
+        private Map<String, Integer> reactionCounts;
+
+        // Emojis con los que reaccionó el usuario actual
+        private List<String> userReactions;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -1,9 +1,11 @@
 package com.taskmanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -74,6 +76,25 @@ public class DirectMessageDTO {
         private LocalDateTime updatedAt;
     }
 
+    /**
+     * Página del historial con cursores (orden cronológico)
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CursorPage {
+        private List<Response> messages;
+
+        // Usar como ?before= para cargar mensajes más antiguos
+        private Long beforeCursor;
+
+        // Usar como ?after= para cargar mensajes más nuevos
+        private Long afterCursor;
+
+        private Boolean hasMore;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -103,6 +124,23 @@ public class DirectMessageDTO {
         private String reason;
     }
 
+    /**
+     * Resumen de reacciones devuelto al agregar o quitar una reacción
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReactionSummary {
+        private Long messageId;
+
+        // Reacciones: emoji -> cantidad
+        private Map<String, Integer> reactionCounts;
+
+        // Emojis con los que reaccionó el usuario actual
+        private List<String> userReactions;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -113,4 +151,87 @@ public class DirectMessageDTO {
         @Size(max = 10)
         private String emoji;
     }
-}
\ No newline at end of file
+
+    /**
+     * Evento en tiempo real enviado a la cola del usuario
+     * (/user/queue/direct-messages) después del commit
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Event {
+        private EventType type;
+
+        // Usuario que recibe el evento (no se serializa)
+        @JsonIgnore
+        private Long recipientId;
+
+        private String conversationId;
+        private Long messageId;
+
+        // Solo en CREATED y UPDATED
+        private Response message;
+
+        // Solo en READ: quién leyó y cuándo
+        private Long readerId;
+        private LocalDateTime readAt;
+
+        // Total de no leídos del destinatario, cuando cambia
+        private Long unreadCount;
+
+        private LocalDateTime occurredAt;
+    }
+
+    public enum EventType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        READ
+    }
+
+    /**
+     * Señal efímera (escribiendo...). Nunca se guarda en la base de datos
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Signal {
+        private SignalType type;
+        private Long userId;
+        private String conversationId;
+        private Boolean typing;
+
+        // El cliente oculta el indicador si no llega otra señal en este tiempo
+        private Long expiresInMs;
+
+        private LocalDateTime occurredAt;
+    }
+
+    public enum SignalType {
+        TYPING
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TypingRequest {
+
+        @NotNull(message = "El ID del destinatario es obligatorio")
+        private Long receiverId;
+
+        private Boolean typing;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Presence {
+        private Long userId;
+        private Boolean online;
+        private LocalDateTime lastSeenAt;
+    }
+}
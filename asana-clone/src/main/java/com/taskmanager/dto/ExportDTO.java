@@ -1,5 +1,6 @@
 package com.taskmanager.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.taskmanager.model.enums.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -46,6 +47,7 @@ public class ExportDTO {
         private String estimatedTime;
         private Boolean isExpired;
         private Integer daysUntilExpiration;
+        private Long reusedFromJobId;
     }
 
     // Create Request
@@ -63,6 +65,9 @@ public class ExportDTO {
 
         private Long referenceId;
 
+        // Solo PROJECTS_BUNDLE: vacío = todos los proyectos del usuario
+        private List<Long> projectIds;
+
         private Map<String, Object> filters;
 
         private Boolean includeComments;
@@ -71,4 +76,55 @@ public class ExportDTO {
         private LocalDateTime dateFrom;
         private LocalDateTime dateTo;
     }
+
+    // Estado de la cola de exports (métricas)
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class QueueStats {
+        private Integer workers;
+        private Integer capacity;
+        private Integer queued;
+        private Integer running;
+        private Integer queuedUsers;
+        private Long oldestQueuedMillis;
+        private Long completed;
+        private Long failed;
+        private Long cancelled;
+    }
+
+    // Progreso en vivo de un export (SSE, ver ExportProgressRegistry)
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Progress {
+        private Long jobId;
+        @JsonIgnore
+        private Long userId;
+        private ExportStatus status;
+        private Long processedRecords;
+        private Long totalRecords;
+        private Integer progress;
+        private LocalDateTime updatedAt;
+    }
+
+    // Resultado de una pasada de limpieza de exports
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CleanupReport {
+        private Integer expiredJobs;
+        private Integer evictedJobs;
+        private Integer purgedRows;
+        private Integer deletedFiles;
+        private Long reclaimedBytes;
+        private Long storedBytes;
+        private Long durationMillis;
+    }
 }
@@ -5,8 +5,6 @@ import com.taskmanager.model.*;
 import org.mapstruct.*;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 /**
  * ===================================================================
  * ChatMessageMapper - Mapeo entre ChatMessage entities y DTOs
@@ -32,9 +30,10 @@ public interface ChatMessageMapper {
     @Mapping(target = "edited", constant = "false")
     @Mapping(target = "editedAt", ignore = true)
     @Mapping(target = "deleted", constant = "false")
-    @Mapping(target = "reactions", ignore = true)
+    @Mapping(target = "reactionCounts", ignore = true)
     @Mapping(target = "replyCount", constant = "0")
-    @Mapping(target = "readByUserIds", ignore = true)
+    @Mapping(target = "lastReplyAt", ignore = true)
+    @Mapping(target = "lastReplierIds", ignore = true)
     @Mapping(target = "pinned", constant = "false")
     @Mapping(target = "pinnedAt", ignore = true)
     @Mapping(target = "pinnedBy", ignore = true)
@@ -50,7 +49,7 @@ public interface ChatMessageMapper {
     @Mapping(target = "parentMessageId", source = "parentMessage.id")
     @Mapping(target = "type", source = "type", qualifiedByName = "typeToString")
     @Mapping(target = "mentionedUsers", expression = "java(getMentionedUsers(message))")
-    @Mapping(target = "reactionCounts", expression = "java(getReactionCounts(message))")
+    @Mapping(target = "lastReplierIds", source = "lastReplierIds", qualifiedByName = "replierIdsToList")
     ChatMessageDTO.Response messageToResponse(ChatMessage message);
 
     /**
@@ -72,9 +71,10 @@ public interface ChatMessageMapper {
     @Mapping(target = "attachmentMimeType", ignore = true)
     @Mapping(target = "attachmentSize", ignore = true)
     @Mapping(target = "deleted", ignore = true)
-    @Mapping(target = "reactions", ignore = true)
+    @Mapping(target = "reactionCounts", ignore = true)
     @Mapping(target = "replyCount", ignore = true)
-    @Mapping(target = "readByUserIds", ignore = true)
+    @Mapping(target = "lastReplyAt", ignore = true)
+    @Mapping(target = "lastReplierIds", ignore = true)
     @Mapping(target = "pinned", ignore = true)
     @Mapping(target = "pinnedAt", ignore = true)
     @Mapping(target = "pinnedBy", ignore = true)
@@ -101,24 +101,25 @@ public interface ChatMessageMapper {
     }
 
     /**
-     * Obtiene usuarios mencionados (simplificado)
+     * Convierte "12,7,3" en [12, 7, 3]
      */
-    default java.util.Set<UserDTO.Summary> getMentionedUsers(ChatMessage message) {
-        // En producción, buscar usuarios por IDs
-        return new java.util.HashSet<>();
+    @Named("replierIdsToList")
+    default List<Long> replierIdsToList(String ids) {
+        if (ids == null || ids.isBlank()) {
+            return new java.util.ArrayList<>();
+        }
+        return java.util.Arrays.stream(ids.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(java.util.stream.Collectors.toList());
     }
 
     /**
-     * Convierte reacciones a contadores
+     * Obtiene usuarios mencionados (simplificado)
      */
-    default Map<String, Integer> getReactionCounts(ChatMessage message) {
-        if (message.getReactions() == null) {
-            return new java.util.HashMap<>();
-        }
-        return message.getReactions().entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> e.getValue().size()
-                ));
+    default java.util.Set<UserDTO.Summary> getMentionedUsers(ChatMessage message) {
+        // En producción, buscar usuarios por IDs
+        return new java.util.HashSet<>();
     }
 }
\ No newline at end of file
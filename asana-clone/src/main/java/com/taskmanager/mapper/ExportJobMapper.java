@@ -35,10 +35,13 @@ public interface ExportJobMapper {
     @Mapping(target = "downloadUrl", ignore = true)
     @Mapping(target = "expiresAt", ignore = true)
     @Mapping(target = "downloadCount", constant = "0")
+    @Mapping(target = "lastDownloadedAt", ignore = true)
     @Mapping(target = "errorMessage", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "completedAt", ignore = true)
     @Mapping(target = "filters", ignore = true)
+    @Mapping(target = "fingerprint", ignore = true)
+    @Mapping(target = "reusedFromJobId", ignore = true)
     ExportJob toEntity(ExportDTO.CreateRequest request);
 
     default String formatFileSize(Long bytes) {
@@ -21,7 +21,9 @@ import java.time.LocalDateTime;
  * Esta entidad guarda la metadata del archivo
  */
 @Entity
-@Table(name = "attachments")
+@Table(name = "attachments", indexes = {
+        @Index(name = "idx_attachment_blob_hash", columnList = "blob_hash")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -55,7 +57,8 @@ public class Attachment {
 
     /**
      * Nombre del archivo en el sistema de almacenamiento
-     * Suele ser un UUID + extensión para evitar conflictos
+     * Archivos con blob: ruta dentro de blobs/ (ver AttachmentBlob.shardedPath)
+     * Archivos anteriores: UUID + extensión
      * Ejemplo: "a1b2c3d4-e5f6-7890-abcd-ef1234567890.pdf"
      */
     @Column(nullable = false, length = 255)
@@ -109,11 +112,20 @@ public class Attachment {
     private String thumbnailUrl;
 
     /**
-     * Hash MD5 del archivo (para verificar integridad)
+     * Hash SHA-256 del archivo en hexadecimal (para verificar integridad)
+     * Los archivos subidos antes guardan un MD5 de 32 caracteres
      */
-    @Column(length = 32)
+    @Column(length = 64)
     private String fileHash;
 
+    /**
+     * Blob con el contenido (AttachmentBlob.hash)
+     * null en archivos subidos antes del almacenamiento deduplicado:
+     * esos siguen en su archivo propio
+     */
+    @Column(name = "blob_hash", length = 64)
+    private String blobHash;
+
     /**
      * Número de descargas del archivo
      */
@@ -0,0 +1,72 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad AttachmentBlob (Contenido de archivo adjunto)
+ *
+ * CUMPLE REQUERIMIENTO N°11: Adjuntar archivos
+ *
+ * Almacenamiento direccionado por contenido: cada contenido distinto se
+ * guarda una sola vez en disco, en file.upload-dir/blobs/ab/cd/<sha256>.
+ * Los Attachment que suben el mismo archivo apuntan al mismo blob
+ * (Attachment.blobHash) y refCount cuenta cuántos lo usan. El archivo
+ * físico se borra cuando refCount llega a 0.
+ *
+ * refCount se mantiene con UPDATE atómicos en AttachmentBlobRepository.
+ */
+@Entity
+@Table(name = "attachment_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentBlob {
+
+    /**
+     * SHA-256 del contenido en hexadecimal
+     */
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    /**
+     * Tamaño del contenido en bytes (se cuenta una vez por blob)
+     */
+    @Column(nullable = false)
+    private Long size;
+
+    /**
+     * Cantidad de adjuntos que referencian este contenido
+     */
+    @Column(name = "ref_count", nullable = false)
+    @Builder.Default
+    private Integer refCount = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Último cambio de refCount (la reconciliación no toca blobs recientes)
+     */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    /**
+     * Ruta relativa dentro de blobs/: dos niveles de dos caracteres
+     * para no acumular miles de archivos en un mismo directorio
+     * Ejemplo: "9f/86/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08"
+     */
+    public static String shardedPath(String hash) {
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
@@ -0,0 +1,68 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ChatMention (Mención en el chat)
+ *
+ * CUMPLE REQUERIMIENTO N°14: Chat del proyecto
+ *
+ * Índice de menciones escrito al enviar el mensaje: una fila por
+ * (usuario mencionado, mensaje). Permite listar "mensajes que me mencionan"
+ * de todos los proyectos recorriendo solo el índice del usuario.
+ */
+@Entity
+@Table(name = "chat_mentions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_chat_mention_user_message", columnNames = {"user_id", "message_id"})
+        },
+        indexes = {
+                @Index(name = "idx_chat_mention_inbox", columnList = "user_id,created_at,message_id,project_id"),
+                @Index(name = "idx_chat_mention_message", columnList = "message_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMention {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Usuario mencionado
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    /**
+     * Usuario que escribió el mensaje
+     */
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(name = "is_read", nullable = false)
+    @Builder.Default
+    private Boolean isRead = false;
+
+    @Column
+    private LocalDateTime readAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ChatMentionCounter (Contador de menciones no leídas)
+ *
+ * CUMPLE REQUERIMIENTO N°14: Chat del proyecto
+ *
+ * Total desnormalizado por usuario: consultar las menciones pendientes
+ * es leer una fila por clave primaria. Se mantiene con UPDATE atómicos
+ * en ChatMentionRepository cada vez que cambia el estado de una mención.
+ */
+@Entity
+@Table(name = "chat_mention_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMentionCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private Long unreadCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
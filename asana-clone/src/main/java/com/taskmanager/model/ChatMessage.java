@@ -2,6 +2,7 @@ package com.taskmanager.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -19,7 +20,11 @@ import java.util.Set;
  * - Archivos compartidos
  */
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        @Index(name = "idx_chat_project_id", columnList = "project_id,id"),
+        @Index(name = "idx_chat_project_created", columnList = "project_id,created_at,id"),
+        @Index(name = "idx_chat_parent_created", columnList = "parent_message_id,created_at,id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -110,18 +115,20 @@ public class ChatMessage {
     private Boolean deleted = false;
 
     /**
-     * Reacciones al mensaje
-     * Formato: emoji -> Set de user IDs
+     * Total de reacciones por emoji (desnormalizado, solo lectura)
+     * Se mantiene con UPDATE atómicos en ChatReactionRepository;
+     * el detalle por usuario está en chat_reactions.
      */
     @ElementCollection
     @CollectionTable(
-            name = "chat_message_reactions",
+            name = "chat_reaction_counts",
             joinColumns = @JoinColumn(name = "message_id")
     )
-    @MapKeyColumn(name = "emoji")
-    @Column(name = "user_id")
+    @MapKeyColumn(name = "emoji", length = 32)
+    @Column(name = "reaction_count", nullable = false)
+    @BatchSize(size = 50)
     @Builder.Default
-    private java.util.Map<String, Set<Long>> reactions = new java.util.HashMap<>();
+    private java.util.Map<String, Integer> reactionCounts = new java.util.HashMap<>();
 
     /**
      * Número de respuestas a este mensaje
@@ -131,16 +138,18 @@ public class ChatMessage {
     private Integer replyCount = 0;
 
     /**
-     * Usuarios que han leído el mensaje
+     * Resumen del hilo para la vista previa (sin cargar respuestas)
+     * Se mantiene junto con replyCount en ChatMessageRepository.registerReply
      */
-    @ElementCollection
-    @CollectionTable(
-            name = "chat_message_read_by",
-            joinColumns = @JoinColumn(name = "message_id")
-    )
-    @Column(name = "user_id")
-    @Builder.Default
-    private Set<Long> readByUserIds = new HashSet<>();
+    @Column
+    private LocalDateTime lastReplyAt;
+
+    /**
+     * IDs de los últimos usuarios que respondieron, más reciente primero
+     * Formato: "12,7,3" (máximo 3, sin repetir)
+     */
+    @Column(length = 100)
+    private String lastReplierIds;
 
     /**
      * Fijado en el chat (mensajes importantes)
@@ -201,33 +210,6 @@ public class ChatMessage {
         this.content = "[Mensaje eliminado]";
     }
 
-    /**
-     * Agrega una reacción al mensaje
-     */
-    public void addReaction(String emoji, Long userId) {
-        reactions.computeIfAbsent(emoji, k -> new HashSet<>()).add(userId);
-    }
-
-    /**
-     * Remueve una reacción del mensaje
-     */
-    public void removeReaction(String emoji, Long userId) {
-        Set<Long> users = reactions.get(emoji);
-        if (users != null) {
-            users.remove(userId);
-            if (users.isEmpty()) {
-                reactions.remove(emoji);
-            }
-        }
-    }
-
-    /**
-     * Marca el mensaje como leído por un usuario
-     */
-    public void markAsReadBy(Long userId) {
-        readByUserIds.add(userId);
-    }
-
     /**
      * Fija el mensaje en el chat
      */
@@ -246,13 +228,6 @@ public class ChatMessage {
         this.pinnedBy = null;
     }
 
-    /**
-     * Incrementa el contador de respuestas
-     */
-    public void incrementReplyCount() {
-        this.replyCount++;
-    }
-
     /**
      * Verifica si es una respuesta
      */
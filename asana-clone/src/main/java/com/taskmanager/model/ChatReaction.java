@@ -0,0 +1,47 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ChatReaction (Reacción a un mensaje del chat)
+ *
+ * CUMPLE REQUERIMIENTO N°14: Chat del proyecto
+ *
+ * Una fila por (mensaje, usuario, emoji). Agregar o quitar una reacción es
+ * un INSERT/DELETE de una sola fila; los totales por emoji se guardan
+ * desnormalizados en ChatMessage.reactionCounts.
+ */
+@Entity
+@Table(name = "chat_reactions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_reaction", columnNames = {"message_id", "user_id", "emoji"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 32)
+    private String emoji;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
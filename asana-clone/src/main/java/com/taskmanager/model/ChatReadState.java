@@ -0,0 +1,62 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad ChatReadState (Marca de lectura del chat)
+ *
+ * CUMPLE REQUERIMIENTO N°14: Chat del proyecto
+ *
+ * Guarda, por cada par (usuario, proyecto), el ID del último mensaje leído.
+ * Todo mensaje del proyecto con ID mayor a esta marca se considera no leído,
+ * por lo que no es necesario registrar una fila por cada lectura.
+ *
+ * Reemplaza a chat_message_read_by (una fila por lectura). Las marcas
+ * iniciales se migran desde esa tabla al arrancar
+ * (ChatMessageService.backfillReadStates).
+ */
+@Entity
+@Table(name = "chat_read_states", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_chat_read_user_project", columnNames = {"user_id", "project_id"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatReadState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Usuario lector
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Proyecto del chat
+     */
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    /**
+     * ID del último mensaje leído (solo avanza)
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastReadMessageId = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -2,10 +2,9 @@ package com.taskmanager.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Entidad DirectMessage (Mensaje Directo)
@@ -13,13 +12,23 @@ import java.util.Set;
  * Sistema de chat privado 1-a-1 entre usuarios
  */
 @Entity
-@Table(name = "direct_messages")
+@Table(name = "direct_messages", indexes = {
+        // Historial por cursor: (conversación, fecha, id) sin ordenar en memoria
+        @Index(name = "idx_dm_conversation_created", columnList = "conversation_id,created_at,id"),
+        // Marcar como leída: solo las filas no leídas del destinatario
+        @Index(name = "idx_dm_conversation_receiver_read", columnList = "conversation_id,receiver_id,is_read")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class DirectMessage {
 
+    /**
+     * Contenido que reemplaza al de un mensaje eliminado
+     */
+    public static final String DELETED_CONTENT = "[Mensaje eliminado]";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -101,17 +110,19 @@ public class DirectMessage {
     private Boolean deleted = false;
 
     /**
-     * Reacciones
+     * Total de reacciones por emoji (desnormalizado, solo lectura)
+     * Se mantiene con UPDATE atómicos en DirectMessageReactionRepository
      */
     @ElementCollection
     @CollectionTable(
-            name = "direct_message_reactions",
+            name = "dm_reaction_counts",
             joinColumns = @JoinColumn(name = "message_id")
     )
-    @MapKeyColumn(name = "emoji")
-    @Column(name = "user_id")
+    @MapKeyColumn(name = "emoji", length = 32)
+    @Column(name = "reaction_count", nullable = false)
+    @BatchSize(size = 50)
     @Builder.Default
-    private java.util.Map<String, Set<Long>> reactions = new java.util.HashMap<>();
+    private java.util.Map<String, Integer> reactionCounts = new java.util.HashMap<>();
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -158,25 +169,11 @@ public class DirectMessage {
 
     public void softDelete() {
         this.deleted = true;
-        this.content = "[Mensaje eliminado]";
+        this.content = DELETED_CONTENT;
     }
 
     public void markAsRead() {
         this.isRead = true;
         this.readAt = LocalDateTime.now();
     }
-
-    public void addReaction(String emoji, Long userId) {
-        reactions.computeIfAbsent(emoji, k -> new HashSet<>()).add(userId);
-    }
-
-    public void removeReaction(String emoji, Long userId) {
-        Set<Long> users = reactions.get(emoji);
-        if (users != null) {
-            users.remove(userId);
-            if (users.isEmpty()) {
-                reactions.remove(emoji);
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.taskmanager.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad DmConversation (Bandeja de conversaciones directas)
+ *
+ * Vista materializada de la lista de conversaciones: una fila por
+ * participante con el último mensaje y sus no leídos. Se actualiza en la
+ * misma transacción que el envío y la lectura, de modo que la bandeja es
+ * una sola consulta sobre (user_id, last_message_at).
+ */
+@Entity
+@Table(name = "dm_conversations",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_dm_conv_user_other", columnNames = {"user_id", "other_user_id"})
+        },
+        indexes = {
+                @Index(name = "idx_dm_conv_inbox", columnList = "user_id,last_message_at"),
+                @Index(name = "idx_dm_conv_conversation", columnList = "conversation_id")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DmConversation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Dueño de la fila (participante que ve la bandeja)
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * El otro participante
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "other_user_id", nullable = false)
+    private User otherUser;
+
+    @Column(name = "conversation_id", nullable = false, length = 100)
+    private String conversationId;
+
+    /**
+     * Último mensaje (solo avanza)
+     */
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 255)
+    private String lastMessagePreview;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    /**
+     * Mensajes recibidos sin leer en esta conversación
+     */
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private Integer unreadCount = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -15,7 +15,9 @@ import java.time.LocalDateTime;
 @Table(name = "export_jobs", indexes = {
         @Index(name = "idx_export_user", columnList = "requested_by_id"),
         @Index(name = "idx_export_status", columnList = "status"),
-        @Index(name = "idx_export_expires", columnList = "expires_at")
+        @Index(name = "idx_export_expires", columnList = "expires_at"),
+        @Index(name = "idx_export_fingerprint", columnList = "fingerprint,status,expires_at"),
+        @Index(name = "idx_export_file_path", columnList = "file_path")
 })
 @Getter
 @Setter
@@ -47,6 +49,12 @@ public class ExportJob {
     @Column(columnDefinition = "TEXT")
     private String filters; // JSON con filtros
 
+    // REUTILIZACIÓN: SHA-256 de (referencia, tipo, formato, versión de los datos)
+    @Column(length = 64)
+    private String fingerprint;
+
+    private Long reusedFromJobId; // Job cuyo archivo se comparte (null si se generó)
+
     // ESTADO DEL JOB
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
@@ -77,6 +85,8 @@ public class ExportJob {
     @Column(nullable = false)
     private Integer downloadCount = 0;
 
+    private LocalDateTime lastDownloadedAt; // Orden LRU al liberar espacio
+
     // ERROR HANDLING
     @Column(columnDefinition = "TEXT")
     private String errorMessage;
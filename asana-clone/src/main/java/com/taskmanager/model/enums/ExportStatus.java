@@ -8,5 +8,6 @@ public enum ExportStatus {
     PROCESSING,  // Procesando
     COMPLETED,   // Completado
     FAILED,      // Falló
+    CANCELLED,   // Cancelado por el usuario
     EXPIRED      // Expirado (archivo eliminado)
 }
\ No newline at end of file
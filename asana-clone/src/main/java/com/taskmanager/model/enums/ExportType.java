@@ -9,5 +9,6 @@ public enum ExportType {
     ACTIVITIES,        // Timeline de actividades
     COMMENTS,          // Comentarios
     SUBSCRIPTION_REPORT, // Reporte de suscripción
-    USER_DATA          // Datos del usuario (GDPR compliance)
+    USER_DATA,         // Datos del usuario (GDPR compliance)
+    PROJECTS_BUNDLE    // Varios proyectos en un ZIP (un archivo por proyecto)
 }
\ No newline at end of file
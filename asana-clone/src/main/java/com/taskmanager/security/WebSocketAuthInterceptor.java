@@ -0,0 +1,134 @@
+package com.taskmanager.security;
+
+import com.taskmanager.Repositorios.ProjectRepository;
+import com.taskmanager.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Autenticación y autorización de frames STOMP
+ *
+ * - CONNECT: valida el JWT del header nativo "Authorization: Bearer ..."
+ *   (el navegador no puede enviar headers en el handshake HTTP)
+ * - SUBSCRIBE: solo miembros del proyecto pueden suscribirse a su chat
+ * - SEND: los clientes solo envían a /app, nunca directo al broker
+ */
+@Component
+@Slf4j
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+
+    private static final Pattern PROJECT_CHAT_TOPIC =
+            Pattern.compile("^/topic/projects/(\\d+)/chat$");
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final ProjectRepository projectRepository;
+
+    public WebSocketAuthInterceptor(JwtService jwtService,
+                                    @Qualifier("customUserDetailsService") UserDetailsService userDetailsService,
+                                    ProjectRepository projectRepository) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.projectRepository = projectRepository;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor =
+                MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+
+        if (StompCommand.CONNECT.equals(command)) {
+            accessor.setUser(authenticate(accessor));
+        } else if (StompCommand.SUBSCRIBE.equals(command)) {
+            authorizeSubscription(accessor);
+        } else if (StompCommand.SEND.equals(command)) {
+            authorizeSend(accessor);
+        }
+
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(StompHeaderAccessor accessor) {
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Token JWT requerido para conectarse");
+        }
+
+        String jwt = authHeader.substring(7);
+        String userEmail = jwtService.extractUsername(jwt);
+        User user = (User) userDetailsService.loadUserByUsername(userEmail);
+
+        if (!jwtService.isTokenValid(jwt, user)) {
+            throw new AccessDeniedException("Token JWT inválido o expirado");
+        }
+
+        log.debug("WebSocket CONNECT authenticated for user: {} (ID: {})", user.getEmail(), user.getId());
+
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        User user = currentUser(accessor);
+        String destination = accessor.getDestination();
+
+        if (destination == null) {
+            throw new AccessDeniedException("Destino requerido");
+        }
+
+        // Las colas de usuario (/user/queue/...) ya están aisladas por sesión
+        if (destination.startsWith("/user/")) {
+            return;
+        }
+
+        Matcher matcher = PROJECT_CHAT_TOPIC.matcher(destination);
+        if (!matcher.matches()) {
+            throw new AccessDeniedException("Destino no permitido: " + destination);
+        }
+
+        Long projectId = Long.valueOf(matcher.group(1));
+        if (!projectRepository.existsUserAccess(projectId, user.getId())) {
+            throw new AccessDeniedException("No tienes acceso a este proyecto");
+        }
+    }
+
+    private void authorizeSend(StompHeaderAccessor accessor) {
+        currentUser(accessor);
+        String destination = accessor.getDestination();
+
+        if (destination == null || !destination.startsWith("/app/")) {
+            throw new AccessDeniedException("Destino no permitido: " + destination);
+        }
+    }
+
+    private User currentUser(StompHeaderAccessor accessor) {
+        Principal principal = accessor.getUser();
+
+        if (principal instanceof UsernamePasswordAuthenticationToken token
+                && token.getPrincipal() instanceof User user) {
+            return user;
+        }
+
+        throw new AccessDeniedException("Sesión WebSocket no autenticada");
+    }
+}
@@ -4,8 +4,10 @@ import com.taskmanager.dto.AttachmentDTO;
 import com.taskmanager.exception.ResourceNotFoundException;
 import com.taskmanager.mapper.AttachmentMapper;
 import com.taskmanager.model.Attachment;
+import com.taskmanager.model.AttachmentBlob;
 import com.taskmanager.model.Task;
 import com.taskmanager.model.User;
+import com.taskmanager.Repositorios.AttachmentBlobRepository;
 import com.taskmanager.Repositorios.AttachmentRepository;
 import com.taskmanager.Repositorios.TaskRepository;
 import com.taskmanager.Repositorios.UserRepository;
@@ -14,20 +16,33 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +55,11 @@ import java.util.stream.Collectors;
  * - Descargar archivos
  * - Eliminar archivos
  * - Listar archivos de una tarea
+ *
+ * Almacenamiento direccionado por contenido: cada archivo se guarda en
+ * file.upload-dir/blobs/ab/cd/<sha256> y un contenido repetido se guarda
+ * una sola vez (ver AttachmentBlob). Los archivos subidos antes siguen
+ * en su archivo propio <UUID>.<ext> (Attachment.blobHash = null).
  */
 @Service
 @RequiredArgsConstructor
@@ -47,10 +67,23 @@ import java.util.stream.Collectors;
 @Transactional
 public class AttachmentService {
 
+    // Bytes por llamada a transferFrom al copiar una subida
+    private static final long COPY_CHUNK_SIZE = 8L * 1024 * 1024;
+
+    private static final String BLOBS_DIR = "blobs";
+
+    // Blobs sin cambios en este tiempo se pueden reconciliar sin chocar con subidas
+    private static final Duration RECONCILE_GRACE = Duration.ofHours(1);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
     private final AttachmentRepository attachmentRepository;
+    private final AttachmentBlobRepository attachmentBlobRepository;
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
     private final AttachmentMapper attachmentMapper;
+    private final SubscriptionService subscriptionService;
+    private final PlatformTransactionManager transactionManager;
 
     // Directorio donde se guardarán los archivos
     // En producción podría ser S3, Azure Blob Storage, etc.
@@ -61,6 +94,12 @@ public class AttachmentService {
     @Value("${file.max-size:52428800}")
     private long maxFileSize;
 
+    /**
+     * Subida ya escrita en un temporal con su hash
+     */
+    private record StoredUpload(Path tempFile, long size, String sha256) {
+    }
+
     /**
      * N°11: Sube un archivo a una tarea
      *
@@ -99,16 +138,19 @@ public class AttachmentService {
         // Valida que el usuario tenga acceso
         validateTaskAccess(task, userId);
 
+        // Valida la cuota del plan (bytes lógicos: cuenta aunque el contenido ya exista)
+        if (!subscriptionService.canUploadFile(userId, file.getSize())) {
+            throw new AccessDeniedException("Has alcanzado el límite de almacenamiento de tu plan");
+        }
+
         // Busca el usuario
         User uploader = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Usuario no encontrado con ID: " + userId
                 ));
 
-        // Genera nombre único para el archivo
         String originalFilename = file.getOriginalFilename();
         String fileExtension = getFileExtension(originalFilename);
-        String storedFileName = UUID.randomUUID().toString() + "." + fileExtension;
 
         // Crea el directorio si no existe
         Path uploadPath = Paths.get(uploadDir);
@@ -116,12 +158,12 @@ public class AttachmentService {
             Files.createDirectories(uploadPath);
         }
 
-        // Guarda el archivo en el sistema de archivos
-        Path filePath = uploadPath.resolve(storedFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Guarda el archivo en un temporal y calcula su SHA-256 en una sola lectura
+        StoredUpload upload = storeUpload(file, uploadPath);
 
-        // Calcula hash MD5 del archivo
-        String fileHash = calculateMD5(file);
+        // El nombre en disco es el hash: si el contenido ya existe se reutiliza
+        String storedFileName = AttachmentBlob.shardedPath(upload.sha256());
+        Path filePath = placeBlob(upload, blobPath(upload.sha256()));
 
         // Determina si es imagen
         boolean isImage = isImageFile(file.getContentType());
@@ -134,11 +176,12 @@ public class AttachmentService {
                 .storedFileName(storedFileName)
                 .filePath(filePath.toString())
                 .mimeType(file.getContentType())
-                .fileSize(file.getSize())
+                .fileSize(upload.size())
                 .fileExtension(fileExtension)
                 .description(description)
                 .isImage(isImage)
-                .fileHash(fileHash)
+                .fileHash(upload.sha256())
+                .blobHash(upload.sha256())
                 .build();
 
         // Guarda en la base de datos
@@ -281,8 +324,17 @@ public class AttachmentService {
             );
         }
 
-        // Elimina el archivo físico
         Path filePath = Paths.get(attachment.getFilePath());
+
+        if (attachment.getBlobHash() != null) {
+            // El archivo físico solo se borra si era la última referencia al blob
+            attachmentRepository.delete(attachment);
+            releaseBlob(attachment.getBlobHash(), filePath);
+            log.info("Attachment deleted successfully with ID: {}", id);
+            return;
+        }
+
+        // Archivo sin blob: elimina el archivo físico
         try {
             Files.deleteIfExists(filePath);
             log.info("Physical file deleted: {}", attachment.getStoredFileName());
@@ -296,6 +348,58 @@ public class AttachmentService {
         log.info("Attachment deleted successfully with ID: {}", id);
     }
 
+    /**
+     * Uso de almacenamiento de los archivos que subió un usuario
+     */
+    @Transactional(readOnly = true)
+    public AttachmentDTO.StorageUsage getStorageUsage(Long userId) {
+        long logicalBytes = attachmentRepository.sumFileSizeByUploaderId(userId);
+        long physicalBytes = attachmentRepository.getLegacyBytesByUploaderId(userId)
+                + attachmentBlobRepository.getPhysicalBytesByUser(userId);
+
+        return toStorageUsage(attachmentRepository.countByUploadedById(userId), logicalBytes, physicalBytes);
+    }
+
+    /**
+     * Uso de almacenamiento de todo el sistema
+     */
+    @Transactional(readOnly = true)
+    public AttachmentDTO.StorageUsage getStorageUsage() {
+        long logicalBytes = attachmentRepository.getLogicalBytes();
+        long physicalBytes = attachmentRepository.getLegacyBytes()
+                + attachmentBlobRepository.getPhysicalBytes();
+
+        return toStorageUsage(attachmentRepository.count(), logicalBytes, physicalBytes);
+    }
+
+    /**
+     * Corrige los refCount contra los adjuntos reales y borra los blobs
+     * que quedaron sin referencias (la ejecuta SchedulerConfig)
+     *
+     * Al borrar una tarea o un proyecto sus adjuntos se eliminan en cascada
+     * sin pasar por deleteAttachment, así que sus referencias se liberan acá.
+     *
+     * @return cantidad de blobs eliminados
+     */
+    public int reconcileBlobs() {
+        LocalDateTime before = LocalDateTime.now().minus(RECONCILE_GRACE);
+        attachmentBlobRepository.recountReferences(before);
+
+        int released = 0;
+        for (String hash : attachmentBlobRepository.findUnreferenced(
+                before, PageRequest.of(0, RECONCILE_BATCH_SIZE))) {
+            if (attachmentBlobRepository.deleteIfUnreferenced(hash) == 1) {
+                discardBlobFile(blobPath(hash));
+                released++;
+            }
+        }
+
+        if (released > 0) {
+            log.info("Released {} unreferenced attachment blobs", released);
+        }
+        return released;
+    }
+
     /**
      * N°11: Busca archivos por nombre
      * Usa Query Method sin SQL
@@ -371,23 +475,164 @@ public class AttachmentService {
         return mimeType != null && mimeType.startsWith("image/");
     }
 
+    private AttachmentDTO.StorageUsage toStorageUsage(long attachments, long logicalBytes, long physicalBytes) {
+        return AttachmentDTO.StorageUsage.builder()
+                .attachments(attachments)
+                .logicalBytes(logicalBytes)
+                .physicalBytes(physicalBytes)
+                .deduplicatedBytes(logicalBytes - physicalBytes)
+                .build();
+    }
+
+    private Path blobPath(String hash) {
+        return Paths.get(uploadDir).resolve(BLOBS_DIR).resolve(AttachmentBlob.shardedPath(hash));
+    }
+
+    /**
+     * Copia la subida a un temporal del directorio de subidas calculando el
+     * SHA-256 durante la copia (DigestInputStream). El temporal se mueve
+     * luego a su blob: nunca queda un archivo a medias con el nombre final.
+     */
+    private StoredUpload storeUpload(MultipartFile file, Path directory) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+
+        Path tempFile = Files.createTempFile(directory, ".upload-", ".tmp");
+        try {
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(
+                         new DigestInputStream(file.getInputStream(), digest));
+                 FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(in, size, COPY_CHUNK_SIZE)) > 0) {
+                    size += transferred;
+                }
+            }
+
+            return new StoredUpload(tempFile, size, HexFormat.of().formatHex(digest.digest()));
+
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
     /**
-     * Calcula el hash MD5 de un archivo
+     * Suma la referencia al blob y deja el contenido en su ruta
+     *
+     * Si el blob ya existía el temporal se descarta: el contenido ya está en
+     * disco. acquire bloquea la fila del blob hasta el commit, así que una
+     * subida no se cruza con un borrado del mismo contenido.
      */
-    private String calculateMD5(MultipartFile file) {
+    private Path placeBlob(StoredUpload upload, Path blobPath) throws IOException {
         try {
-            MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(file.getBytes());
+            boolean created = attachmentBlobRepository.acquire(upload.sha256(), upload.size()) == 1;
+
+            // Un blob existente sin archivo (borrado a mano) se repone con esta subida
+            if (created || !Files.exists(blobPath)) {
+                Files.createDirectories(blobPath.getParent());
+                Files.move(upload.tempFile(), blobPath, StandardCopyOption.ATOMIC_MOVE);
+                if (created) {
+                    deleteBlobFileOnRollback(upload.sha256(), blobPath);
+                }
+            } else {
+                Files.delete(upload.tempFile());
+                log.info("Content {} already stored, reusing blob", upload.sha256());
+            }
+            return blobPath;
 
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload.tempFile());
+            throw e;
+        }
+    }
+
+    /**
+     * Si la subida no llega al commit, la fila del blob desaparece con el
+     * rollback: el archivo recién movido se borra para no quedar huérfano
+     * (la reconciliación solo recorre filas).
+     *
+     * El rollback ya liberó la fila, así que otra subida del mismo contenido
+     * puede estar insertándola y moviendo su archivo a la misma ruta. La
+     * comprobación y el borrado van en una transacción nueva con el hash
+     * bloqueado (lockHash): la otra subida espera o ya confirmó, y en ese
+     * caso el archivo es suyo y no se toca.
+     */
+    private void deleteBlobFileOnRollback(String hash, Path blobPath) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                try {
+                    Boolean deleted = transaction.execute(txStatus -> {
+                        if (attachmentBlobRepository.lockHash(hash).isPresent()) {
+                            return false;
+                        }
+                        try {
+                            return Files.deleteIfExists(blobPath);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e.getMessage(), e);
+                        }
+                    });
+                    if (Boolean.TRUE.equals(deleted)) {
+                        log.info("Rolled back upload, blob file deleted: {}", blobPath.getFileName());
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Error deleting blob file of rolled back upload {}: {}", blobPath, e.getMessage());
+                }
             }
-            return sb.toString();
+        });
+    }
+
+    /**
+     * Resta una referencia al blob y, si era la última, descarta su archivo
+     */
+    private void releaseBlob(String hash, Path blobPath) {
+        attachmentBlobRepository.release(hash);
+        if (attachmentBlobRepository.deleteIfUnreferenced(hash) == 0) {
+            log.info("Blob {} still referenced, physical file kept", hash);
+            return;
+        }
+        discardBlobFile(blobPath);
+    }
 
-        } catch (NoSuchAlgorithmException | IOException e) {
-            log.error("Error calculating MD5: {}", e.getMessage());
-            return null;
+    /**
+     * Renombra el archivo del blob dentro de la transacción y lo borra
+     * después del commit (si hay rollback vuelve a su nombre). Una subida
+     * del mismo contenido que espera el lock del blob escribe su archivo
+     * recién después del commit, cuando el nombre ya quedó libre.
+     */
+    private void discardBlobFile(Path blobPath) {
+        Path discarded = blobPath.resolveSibling(blobPath.getFileName() + ".deleted");
+        try {
+            Files.move(blobPath, discarded, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not discard blob file {}: {}", blobPath, e.getMessage());
+            return;
         }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        Files.deleteIfExists(discarded);
+                        log.info("Physical file deleted: {}", blobPath.getFileName());
+                    } else {
+                        Files.move(discarded, blobPath, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException e) {
+                    log.error("Error completing blob file deletion {}: {}", blobPath, e.getMessage());
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ChatMessageDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Difusión en tiempo real del chat del proyecto (N°14)
+ *
+ * Escucha los eventos publicados por ChatMessageService y los reenvía al
+ * topic del proyecto solo después del commit, para que ningún cliente vea
+ * un mensaje que luego se revierte.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatBroadcastService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public static String projectTopic(Long projectId) {
+        return "/topic/projects/" + projectId + "/chat";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatMessageDTO.Event event) {
+        try {
+            messagingTemplate.convertAndSend(projectTopic(event.getProjectId()), event);
+            log.debug("Chat event {} broadcast for message {} in project {}",
+                    event.getType(), event.getMessageId(), event.getProjectId());
+        } catch (MessagingException e) {
+            // El mensaje ya está guardado: los clientes lo recuperan por REST
+            log.warn("Could not broadcast chat event {} for message {}: {}",
+                    event.getType(), event.getMessageId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ChatMessageDTO;
+import com.taskmanager.exception.ResourceNotFoundException;
+import com.taskmanager.mapper.ChatMessageMapper;
+import com.taskmanager.model.ChatMention;
+import com.taskmanager.model.ChatMessage;
+import com.taskmanager.Repositorios.ChatMentionRepository;
+import com.taskmanager.Repositorios.ChatMessageRepository;
+import com.taskmanager.Repositorios.ProjectRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bandeja de menciones del chat (N°14)
+ *
+ * Las menciones se indexan al enviar o editar el mensaje, en la misma
+ * transacción. La bandeja recorre el índice (user_id, created_at, ...) y
+ * el total de no leídas se lee de un contador por usuario.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ChatMentionService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final ChatMentionRepository mentionRepository;
+    private final ChatMessageRepository messageRepository;
+    private final ProjectRepository projectRepository;
+    private final ChatMessageMapper messageMapper;
+
+    /**
+     * Indexa las menciones de un mensaje nuevo o editado.
+     * Solo se indexan miembros del proyecto distintos del autor.
+     *
+     * @return usuarios mencionados por primera vez en este mensaje
+     */
+    public Set<Long> indexMentions(ChatMessage message, Collection<Long> mentionedUserIds) {
+        Set<Long> added = new LinkedHashSet<>();
+        if (mentionedUserIds == null || mentionedUserIds.isEmpty()) {
+            return added;
+        }
+
+        Long projectId = message.getProject().getId();
+        Long senderId = message.getSender().getId();
+
+        for (Long userId : new LinkedHashSet<>(mentionedUserIds)) {
+            if (userId == null || userId.equals(senderId)
+                    || !projectRepository.existsUserAccess(projectId, userId)) {
+                continue;
+            }
+
+            if (mentionRepository.insertMention(userId, message.getId(), projectId, senderId) > 0) {
+                mentionRepository.incrementUnread(userId);
+                added.add(userId);
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Sincroniza el índice tras editar el mensaje
+     *
+     * @return usuarios mencionados por primera vez
+     */
+    public Set<Long> syncMentions(ChatMessage message, Collection<Long> mentionedUserIds) {
+        Set<Long> current = mentionedUserIds == null ? Set.of() : Set.copyOf(mentionedUserIds);
+
+        List<ChatMention> removed = mentionRepository.findByMessageId(message.getId()).stream()
+                .filter(mention -> !current.contains(mention.getUserId()))
+                .collect(Collectors.toList());
+        deleteMentions(removed);
+
+        return indexMentions(message, current);
+    }
+
+    /**
+     * Quita las menciones de un mensaje eliminado
+     */
+    public void removeMentions(Long messageId) {
+        deleteMentions(mentionRepository.findByMessageId(messageId));
+    }
+
+    /**
+     * Leer el chat hasta un mensaje también lee las menciones anteriores
+     */
+    public void markProjectMentionsAsRead(Long userId, Long projectId, Long messageId) {
+        int updated = mentionRepository.markAsReadUpTo(userId, projectId, messageId);
+        if (updated > 0) {
+            mentionRepository.decrementUnread(userId, updated);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ChatMessageDTO.MentionPage getMentions(
+            Long userId,
+            Long before,
+            Integer size,
+            boolean unreadOnly) {
+        log.debug("Fetching mentions for user {} (before={}, unreadOnly={})", userId, before, unreadOnly);
+
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<ChatMention> rows;
+        if (before != null) {
+            LocalDateTime createdAt = mentionRepository.findCreatedAtForUser(before, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Mención no encontrada con ID: " + before
+                    ));
+            rows = mentionRepository.findInboxPageBefore(userId, unreadOnly, createdAt, before, pageable);
+        } else {
+            rows = mentionRepository.findInboxPage(userId, unreadOnly, pageable);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<ChatMention> page = hasMore ? rows.subList(0, limit) : rows;
+
+        Map<Long, ChatMessage> messages = messageRepository
+                .findAllById(page.stream().map(ChatMention::getMessageId).toList())
+                .stream()
+                .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+
+        List<ChatMessageDTO.Mention> mentions = new ArrayList<>();
+        for (ChatMention mention : page) {
+            ChatMessage message = messages.get(mention.getMessageId());
+            if (message == null) {
+                continue;
+            }
+            mentions.add(ChatMessageDTO.Mention.builder()
+                    .id(mention.getId())
+                    .projectId(mention.getProjectId())
+                    .projectName(message.getProject().getName())
+                    .message(messageMapper.messageToResponse(message))
+                    .isRead(mention.getIsRead())
+                    .createdAt(mention.getCreatedAt())
+                    .build());
+        }
+
+        return ChatMessageDTO.MentionPage.builder()
+                .mentions(mentions)
+                .nextCursor(hasMore ? page.get(page.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .unreadCount(getUnreadCount(userId))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long userId) {
+        return mentionRepository.findUnreadCount(userId).orElse(0L);
+    }
+
+    public void markAsRead(Long mentionId, Long userId) {
+        log.debug("Marking mention {} as read by user {}", mentionId, userId);
+
+        if (mentionRepository.markAsRead(mentionId, userId) > 0) {
+            mentionRepository.decrementUnread(userId, 1);
+        }
+    }
+
+    public void markAllAsRead(Long userId) {
+        log.debug("Marking all mentions as read for user {}", userId);
+
+        // Resta solo lo actualizado: una mención que llegue en paralelo sigue contando
+        int updated = mentionRepository.markAllAsRead(userId);
+        if (updated > 0) {
+            mentionRepository.decrementUnread(userId, updated);
+        }
+    }
+
+    private void deleteMentions(List<ChatMention> mentions) {
+        if (mentions.isEmpty()) {
+            return;
+        }
+
+        // isRead de la lectura previa puede estar desactualizado: por usuario,
+        // se borran primero las no leídas y se descuenta lo que se borró
+        Map<Long, List<Long>> idsByUser = mentions.stream()
+                .collect(Collectors.groupingBy(ChatMention::getUserId,
+                        Collectors.mapping(ChatMention::getId, Collectors.toList())));
+
+        idsByUser.forEach((userId, ids) -> {
+            int unread = mentionRepository.deleteUnreadByIds(ids);
+            if (unread > 0) {
+                mentionRepository.decrementUnread(userId, unread);
+            }
+        });
+
+        mentionRepository.deleteByIds(mentions.stream().map(ChatMention::getId).toList());
+    }
+}
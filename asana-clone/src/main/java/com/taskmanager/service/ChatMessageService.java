@@ -11,11 +11,15 @@ import com.taskmanager.model.Project;
 import com.taskmanager.model.User;
 import com.taskmanager.model.Notification;
 import com.taskmanager.Repositorios.ChatMessageRepository;
+import com.taskmanager.Repositorios.ChatReactionRepository;
+import com.taskmanager.Repositorios.ChatReadStateRepository;
 import com.taskmanager.Repositorios.ProjectRepository;
 import com.taskmanager.Repositorios.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -23,7 +27,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,11 +41,41 @@ import java.util.stream.Collectors;
 @Transactional
 public class ChatMessageService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatMessageRepository messageRepository;
+    private final ChatReadStateRepository readStateRepository;
+    private final ChatReactionRepository reactionRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final ChatMessageMapper messageMapper;
     private final NotificationService notificationService;
+    private final ChatSearchService chatSearchService;
+    private final ChatMentionService mentionService;
+    private final ChatRecentCache recentCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Migra las lecturas de chat_message_read_by a chat_read_states la
+     * primera vez que arranca con la tabla nueva vacía. Sin esto, quien no
+     * tiene marca queda en 0 y todo el historial aparece como no leído.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReadStates() {
+        if (readStateRepository.count() > 0 || messageRepository.count() == 0) {
+            return;
+        }
+
+        if (readStateRepository.countLegacyReadByTable() == 0) {
+            log.warn("Chat read states are empty and chat_message_read_by is gone: "
+                    + "existing chat history will show as unread");
+            return;
+        }
+
+        int rows = readStateRepository.backfillFromLegacyReadBy();
+        log.info("Chat read states backfilled from chat_message_read_by: {} rows", rows);
+    }
 
     public ChatMessageDTO.Response sendMessage(
             Long projectId,
@@ -55,80 +94,124 @@ public class ChatMessageService {
         message.setProject(project);
         message.setSender(sender);
 
-        if (request.getParentMessageId() != null) {
-            ChatMessage parentMessage = messageRepository.findById(request.getParentMessageId())
+        Long parentId = request.getParentMessageId();
+        if (parentId != null) {
+            Long parentProjectId = messageRepository.findActiveProjectId(parentId)
                     .orElseThrow(() -> new ResourceNotFoundException(
-                            "Mensaje padre no encontrado con ID: " + request.getParentMessageId()
+                            "Mensaje padre no encontrado con ID: " + parentId
                     ));
 
-            if (!parentMessage.getProject().getId().equals(projectId)) {
+            if (!parentProjectId.equals(projectId)) {
                 throw new IllegalArgumentException(
                         "El mensaje padre no pertenece al mismo proyecto"
                 );
             }
 
-            message.setParentMessage(parentMessage);
-            parentMessage.incrementReplyCount();
-            messageRepository.save(parentMessage);
+            // Referencia sin cargar: el padre no se reescribe
+            message.setParentMessage(messageRepository.getReferenceById(parentId));
         }
 
-        message.markAsReadBy(userId);
-
         ChatMessage savedMessage = messageRepository.save(message);
         log.info("Chat message sent successfully with ID: {}", savedMessage.getId());
 
-        if (request.getMentionedUserIds() != null && !request.getMentionedUserIds().isEmpty()) {
-            request.getMentionedUserIds().forEach(mentionedUserId -> {
-                if (!mentionedUserId.equals(userId)) {
-                    notificationService.createNotification(
-                            mentionedUserId,
-                            Notification.NotificationType.MENTIONED_IN_COMMENT,
-                            "Te mencionaron en el chat",
-                            String.format("%s te mencionó en el chat del proyecto", sender.getFullName()),
-                            "CHAT_MESSAGE",
-                            savedMessage.getId(),
-                            userId
-                    );
-                }
-            });
+        if (parentId != null) {
+            // Contador y resumen del hilo en un UPDATE atómico
+            messageRepository.registerReply(parentId, userId, savedMessage.getCreatedAt());
         }
 
-        return messageMapper.messageToResponse(savedMessage);
+        // El autor ya leyó su propio mensaje: avanza su marca de lectura
+        readStateRepository.upsertLastReadMessageId(userId, projectId, savedMessage.getId());
+
+        // Índice de menciones: solo se notifica a miembros del proyecto
+        mentionService.indexMentions(savedMessage, request.getMentionedUserIds())
+                .forEach(mentionedUserId -> notifyMention(mentionedUserId, savedMessage, sender));
+
+        ChatMessageDTO.Response response = messageMapper.messageToResponse(savedMessage);
+        publishEvent(ChatMessageDTO.EventType.CREATED, response);
+
+        return response;
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> getProjectMessages(
+    public ChatMessageDTO.CursorPage getProjectMessages(
             Long projectId,
             Long userId,
-            int page,
-            int size) {
-        log.debug("Fetching messages for project ID: {}", projectId);
+            Long before,
+            Long after,
+            Integer size) {
+        log.debug("Fetching messages for project ID: {} (before={}, after={})", projectId, before, after);
 
         validateProjectAccess(projectId, userId);
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<ChatMessage> messages = messageRepository
-                .findByProjectIdOrderByCreatedAtDesc(projectId, pageable);
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use solo uno de los cursores: before o after");
+        }
+
+        int limit = capPageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        if (after != null) {
+            // Reconexión: si el cursor sigue en la ventana en memoria no se consulta la BD
+            Optional<ChatMessageDTO.CursorPage> cached = recentCache.findAfter(projectId, after, limit);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+
+            LocalDateTime createdAt = resolveCursor(projectId, after);
+            List<ChatMessage> rows = messageRepository
+                    .findPageAfter(projectId, createdAt, after, pageable);
+            return toCursorPage(rows, limit, false);
+        }
+
+        List<ChatMessage> rows = before != null
+                ? messageRepository.findPageBefore(projectId, resolveCursor(projectId, before), before, pageable)
+                : messageRepository.findLatestPage(projectId, pageable);
 
-        return messageMapper.messagesToResponses(messages.getContent());
+        return toCursorPage(rows, limit, true);
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> getRecentMessages(Long projectId, Long userId) {
+    public ChatMessageDTO.CursorPage getRecentMessages(Long projectId, Long userId, Integer limit) {
         log.debug("Fetching recent messages for project ID: {}", projectId);
 
-        validateProjectAccess(projectId, userId);
+        int pageSize = capPageSize(limit);
+        if (pageSize > recentCache.getWindowSize()) {
+            return getProjectMessages(projectId, userId, null, null, pageSize);
+        }
+
+        // Antes de la primera lectura: en REPEATABLE READ esa lectura fija la
+        // foto de la transacción, y un mensaje confirmado antes de la marca
+        // pero después de la foto dejaría una ventana incompleta instalada
+        long loadStartedAt = recentCache.beginLoad();
+
+        // Sin cargar el proyecto ni sus miembros en cada /recent
+        if (!projectRepository.existsUserAccess(projectId, userId)) {
+            throw new AccessDeniedException("No tienes acceso a este proyecto");
+        }
+
+        Optional<ChatMessageDTO.CursorPage> cached = recentCache.findLatest(projectId, pageSize);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        // Primera lectura: carga la ventana completa y la deja en memoria
+        int windowSize = recentCache.getWindowSize();
+        List<ChatMessage> rows = messageRepository.findLatestPage(projectId, PageRequest.of(0, windowSize + 1));
 
-        LocalDateTime since = LocalDateTime.now().minusHours(24);
-        List<ChatMessage> messages = messageRepository.findRecentMessages(projectId, since);
+        boolean truncated = rows.size() > windowSize;
+        List<ChatMessage> window = new ArrayList<>(truncated ? rows.subList(0, windowSize) : rows);
+        Collections.reverse(window);
+        recentCache.install(projectId, loadStartedAt, messageMapper.messagesToResponses(window), truncated);
 
-        return messageMapper.messagesToResponses(messages);
+        return toCursorPage(rows, pageSize, true);
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> getMessageReplies(
+    public ChatMessageDTO.CursorPage getMessageReplies(
             Long messageId,
-            Long userId) {
+            Long userId,
+            Long after,
+            Integer size) {
         log.debug("Fetching replies for message ID: {}", messageId);
 
         ChatMessage message = messageRepository.findById(messageId)
@@ -138,10 +221,14 @@ public class ChatMessageService {
 
         validateProjectAccess(message.getProject().getId(), userId);
 
-        List<ChatMessage> replies = messageRepository
-                .findByParentMessageIdOrderByCreatedAtAsc(messageId);
+        int limit = capPageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<ChatMessage> replies = after != null
+                ? messageRepository.findRepliesPageAfter(
+                        messageId, resolveReplyCursor(messageId, after), after, pageable)
+                : messageRepository.findFirstRepliesPage(messageId, pageable);
 
-        return messageMapper.messagesToResponses(replies);
+        return toCursorPage(replies, limit, false);
     }
 
     public ChatMessageDTO.Response updateMessage(
@@ -165,7 +252,15 @@ public class ChatMessageService {
         ChatMessage updated = messageRepository.save(message);
         log.info("Message updated successfully with ID: {}", updated.getId());
 
-        return messageMapper.messageToResponse(updated);
+        if (request.getMentionedUserIds() != null) {
+            mentionService.syncMentions(updated, request.getMentionedUserIds())
+                    .forEach(mentionedUserId -> notifyMention(mentionedUserId, updated, updated.getSender()));
+        }
+
+        ChatMessageDTO.Response response = messageMapper.messageToResponse(updated);
+        publishEvent(ChatMessageDTO.EventType.UPDATED, response);
+
+        return response;
     }
 
     public void deleteMessage(Long messageId, Long userId) {
@@ -186,50 +281,49 @@ public class ChatMessageService {
         }
 
         message.softDelete();
-        messageRepository.save(message);
+        ChatMessage deleted = messageRepository.save(message);
+        mentionService.removeMentions(messageId);
 
         log.info("Message deleted successfully (soft delete) with ID: {}", messageId);
+
+        publishEvent(ChatMessageDTO.EventType.DELETED, messageMapper.messageToResponse(deleted));
     }
 
-    public ChatMessageDTO.Response addReaction(
+    public ChatMessageDTO.ReactionSummary addReaction(
             Long messageId,
             String emoji,
             Long userId) {
         log.info("Adding reaction {} to message ID: {} by user ID: {}", emoji, messageId, userId);
 
-        ChatMessage message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Mensaje no encontrado con ID: " + messageId
-                ));
-
-        validateProjectAccess(message.getProject().getId(), userId);
-
-        message.addReaction(emoji, userId);
+        Long projectId = findActiveProjectId(messageId);
+        validateProjectAccess(projectId, userId);
 
-        ChatMessage updated = messageRepository.save(message);
+        // Una sola fila: si la reacción ya existía el total no cambia
+        boolean changed = reactionRepository.insertReaction(messageId, userId, emoji) > 0;
+        if (changed) {
+            reactionRepository.incrementCount(messageId, emoji);
+        }
 
-        return messageMapper.messageToResponse(updated);
+        return reactionSummary(projectId, messageId, userId, changed);
     }
 
-    public ChatMessageDTO.Response removeReaction(
+    public ChatMessageDTO.ReactionSummary removeReaction(
             Long messageId,
             String emoji,
             Long userId) {
         log.info("Removing reaction {} from message ID: {} by user ID: {}",
                 emoji, messageId, userId);
 
-        ChatMessage message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Mensaje no encontrado con ID: " + messageId
-                ));
-
-        validateProjectAccess(message.getProject().getId(), userId);
-
-        message.removeReaction(emoji, userId);
+        Long projectId = findActiveProjectId(messageId);
+        validateProjectAccess(projectId, userId);
 
-        ChatMessage updated = messageRepository.save(message);
+        boolean changed = reactionRepository.deleteReaction(messageId, userId, emoji) > 0;
+        if (changed) {
+            reactionRepository.decrementCount(messageId, emoji);
+            reactionRepository.deleteEmptyCount(messageId, emoji);
+        }
 
-        return messageMapper.messageToResponse(updated);
+        return reactionSummary(projectId, messageId, userId, changed);
     }
 
     public ChatMessageDTO.Response pinMessage(Long messageId, Long userId) {
@@ -253,7 +347,10 @@ public class ChatMessageService {
 
         ChatMessage updated = messageRepository.save(message);
 
-        return messageMapper.messageToResponse(updated);
+        ChatMessageDTO.Response response = messageMapper.messageToResponse(updated);
+        publishEvent(ChatMessageDTO.EventType.PINNED, response);
+
+        return response;
     }
 
     public ChatMessageDTO.Response unpinMessage(Long messageId, Long userId) {
@@ -272,19 +369,45 @@ public class ChatMessageService {
 
         ChatMessage updated = messageRepository.save(message);
 
-        return messageMapper.messageToResponse(updated);
+        ChatMessageDTO.Response response = messageMapper.messageToResponse(updated);
+        publishEvent(ChatMessageDTO.EventType.UNPINNED, response);
+
+        return response;
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> getPinnedMessages(Long projectId, Long userId) {
+    public ChatMessageDTO.CursorPage getPinnedMessages(
+            Long projectId,
+            Long userId,
+            Long before,
+            Integer size) {
         log.debug("Fetching pinned messages for project ID: {}", projectId);
 
         validateProjectAccess(projectId, userId);
 
-        List<ChatMessage> messages = messageRepository
-                .findByProjectIdAndPinnedTrueOrderByPinnedAtDesc(projectId);
+        int limit = capPageSize(size);
+        Pageable pageable = PageRequest.of(0, limit + 1);
 
-        return messageMapper.messagesToResponses(messages);
+        List<ChatMessage> rows;
+        if (before != null) {
+            LocalDateTime pinnedAt = messageRepository.findPinnedAtInProject(projectId, before)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Mensaje fijado no encontrado con ID: " + before
+                    ));
+            rows = messageRepository.findPinnedPageBefore(projectId, pinnedAt, before, pageable);
+        } else {
+            rows = messageRepository.findPinnedPage(projectId, pageable);
+        }
+
+        // Orden por fecha de fijado: el siguiente cursor es el último de la página
+        boolean hasMore = rows.size() > limit;
+        List<ChatMessage> page = hasMore ? rows.subList(0, limit) : rows;
+
+        return ChatMessageDTO.CursorPage.builder()
+                .messages(messageMapper.messagesToResponses(page))
+                .beforeCursor(page.isEmpty() ? null : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
     }
 
     public void markAsRead(Long messageId, Long userId) {
@@ -295,42 +418,169 @@ public class ChatMessageService {
                         "Mensaje no encontrado con ID: " + messageId
                 ));
 
-        validateProjectAccess(message.getProject().getId(), userId);
+        Long projectId = message.getProject().getId();
+        validateProjectAccess(projectId, userId);
 
-        message.markAsReadBy(userId);
-        messageRepository.save(message);
+        // Marca hasta este mensaje (incluido) como leído; la marca nunca retrocede
+        readStateRepository.upsertLastReadMessageId(userId, projectId, messageId);
+        mentionService.markProjectMentionsAsRead(userId, projectId, messageId);
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> getUnreadMessages(Long projectId, Long userId) {
+    public ChatMessageDTO.CursorPage getUnreadMessages(
+            Long projectId,
+            Long userId,
+            Long after,
+            Integer size) {
         log.debug("Fetching unread messages for project {} and user {}", projectId, userId);
 
         validateProjectAccess(projectId, userId);
 
-        List<ChatMessage> messages = messageRepository.findUnreadByUserInProject(projectId, userId);
+        long watermark = getLastReadMessageId(projectId, userId);
+        long from = after != null ? Math.max(after, watermark) : watermark;
+
+        int limit = capPageSize(size);
+        List<ChatMessage> rows = messageRepository.findUnreadByUserInProject(
+                projectId, userId, from, PageRequest.of(0, limit + 1)
+        );
 
-        return messageMapper.messagesToResponses(messages);
+        return toCursorPage(rows, limit, false);
     }
 
     @Transactional(readOnly = true)
     public long countUnreadMessages(Long projectId, Long userId) {
         validateProjectAccess(projectId, userId);
 
-        return messageRepository.countUnreadByUserInProject(projectId, userId);
+        return messageRepository.countUnreadByUserInProject(
+                projectId, userId, getLastReadMessageId(projectId, userId)
+        );
     }
 
     @Transactional(readOnly = true)
-    public List<ChatMessageDTO.Response> searchMessages(
+    public ChatMessageDTO.SearchResult searchMessages(
             Long projectId,
             String keyword,
+            String cursor,
+            Integer size,
             Long userId) {
         log.debug("Searching messages in project {} with keyword: {}", projectId, keyword);
 
         validateProjectAccess(projectId, userId);
 
-        List<ChatMessage> messages = messageRepository.searchMessages(projectId, keyword);
+        return chatSearchService.search(projectId, keyword, cursor, size);
+    }
+
+    /**
+     * Publica el evento; ChatBroadcastService lo difunde tras el commit
+     */
+    private void publishEvent(ChatMessageDTO.EventType type, ChatMessageDTO.Response message) {
+        eventPublisher.publishEvent(ChatMessageDTO.Event.builder()
+                .type(type)
+                .projectId(message.getProjectId())
+                .messageId(message.getId())
+                .message(message)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void notifyMention(Long mentionedUserId, ChatMessage message, User sender) {
+        notificationService.createNotification(
+                mentionedUserId,
+                Notification.NotificationType.MENTIONED_IN_COMMENT,
+                "Te mencionaron en el chat",
+                String.format("%s te mencionó en el chat del proyecto", sender.getFullName()),
+                "CHAT_MESSAGE",
+                message.getId(),
+                sender.getId()
+        );
+    }
+
+    /**
+     * Lee el resumen actualizado y, si hubo cambios, lo difunde sin el mensaje completo
+     */
+    private ChatMessageDTO.ReactionSummary reactionSummary(
+            Long projectId,
+            Long messageId,
+            Long userId,
+            boolean changed) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (ChatReactionRepository.EmojiCount count : reactionRepository.findCountsByMessageId(messageId)) {
+            counts.put(count.getEmoji(), count.getTotal());
+        }
+
+        if (changed) {
+            eventPublisher.publishEvent(ChatMessageDTO.Event.builder()
+                    .type(ChatMessageDTO.EventType.REACTION_UPDATED)
+                    .projectId(projectId)
+                    .messageId(messageId)
+                    .reactions(ChatMessageDTO.ReactionSummary.builder()
+                            .messageId(messageId)
+                            .reactionCounts(counts)
+                            .build())
+                    .occurredAt(LocalDateTime.now())
+                    .build());
+        }
+
+        return ChatMessageDTO.ReactionSummary.builder()
+                .messageId(messageId)
+                .reactionCounts(counts)
+                .userReactions(reactionRepository.findEmojisByMessageIdAndUserId(messageId, userId))
+                .build();
+    }
+
+    private Long findActiveProjectId(Long messageId) {
+        return messageRepository.findActiveProjectId(messageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Mensaje no encontrado con ID: " + messageId
+                ));
+    }
+
+    private int capPageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private LocalDateTime resolveCursor(Long projectId, Long messageId) {
+        return messageRepository.findCreatedAtInProject(projectId, messageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Mensaje no encontrado con ID: " + messageId
+                ));
+    }
+
+    private LocalDateTime resolveReplyCursor(Long parentId, Long messageId) {
+        return messageRepository.findCreatedAtInThread(parentId, messageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Mensaje no encontrado con ID: " + messageId
+                ));
+    }
+
+    /**
+     * Construye la página a partir de limit + 1 filas (la extra indica si hay más).
+     * Los mensajes se devuelven siempre en orden cronológico.
+     */
+    private ChatMessageDTO.CursorPage toCursorPage(
+            List<ChatMessage> rows,
+            int limit,
+            boolean newestFirst) {
+        boolean hasMore = rows.size() > limit;
+        List<ChatMessage> page = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+
+        if (newestFirst) {
+            Collections.reverse(page);
+        }
+
+        return ChatMessageDTO.CursorPage.builder()
+                .messages(messageMapper.messagesToResponses(page))
+                .beforeCursor(page.isEmpty() ? null : page.get(0).getId())
+                .afterCursor(page.isEmpty() ? null : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
+    }
 
-        return messageMapper.messagesToResponses(messages);
+    private Long getLastReadMessageId(Long projectId, Long userId) {
+        return readStateRepository.findLastReadMessageId(userId, projectId).orElse(0L);
     }
 
     private Project validateProjectAccess(Long projectId, Long userId) {
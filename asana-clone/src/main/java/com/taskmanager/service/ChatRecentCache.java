@@ -0,0 +1,279 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ChatMessageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Ventana en memoria de los últimos mensajes del chat por proyecto (N°14)
+ *
+ * Guarda los últimos N mensajes principales ya mapeados a Response. Se
+ * carga desde la BD en la primera lectura y después se mantiene con los
+ * eventos de ChatMessageService (tras el commit). Sirve /recent y la
+ * recuperación al reconectar (?after=) sin consultar la BD.
+ *
+ * Para no instalar una ventana desactualizada, cada evento registra un
+ * número de secuencia por proyecto: si llegó un evento mientras se leía
+ * de la BD, esa lectura no se guarda.
+ */
+@Component
+@Slf4j
+public class ChatRecentCache {
+
+    private static final Comparator<ChatMessageDTO.Response> CHRONOLOGICAL =
+            Comparator.comparing(ChatMessageDTO.Response::getCreatedAt,
+                            Comparator.nullsLast(Comparator.naturalOrder()))
+                    .thenComparing(ChatMessageDTO.Response::getId);
+
+    private static final int MAX_REPLIERS = 3;
+
+    @Value("${chat.recent.window-size:50}")
+    private int windowSize;
+
+    @Value("${chat.recent.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${chat.recent.max-projects:500}")
+    private int maxProjects;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+    private final Map<Long, Change> changes = new ConcurrentHashMap<>();
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Marca de inicio para una carga desde la BD (ver install)
+     */
+    public long beginLoad() {
+        return sequence.get();
+    }
+
+    /**
+     * Últimos {@code limit} mensajes en orden cronológico
+     */
+    public Optional<ChatMessageDTO.CursorPage> findLatest(Long projectId, int limit) {
+        Window window = windows.get(projectId);
+        if (window == null || limit > windowSize) {
+            return Optional.empty();
+        }
+
+        synchronized (window) {
+            window.touch();
+            List<ChatMessageDTO.Response> all = new ArrayList<>(window.messages);
+            int from = Math.max(0, all.size() - limit);
+            return Optional.of(toPage(all.subList(from, all.size()), from > 0 || window.truncated));
+        }
+    }
+
+    /**
+     * Mensajes posteriores a {@code afterId} si ese mensaje sigue en la ventana
+     */
+    public Optional<ChatMessageDTO.CursorPage> findAfter(Long projectId, Long afterId, int limit) {
+        Window window = windows.get(projectId);
+        if (window == null) {
+            return Optional.empty();
+        }
+
+        synchronized (window) {
+            List<ChatMessageDTO.Response> all = new ArrayList<>(window.messages);
+            for (int i = 0; i < all.size(); i++) {
+                if (all.get(i).getId().equals(afterId)) {
+                    window.touch();
+                    int to = Math.min(all.size(), i + 1 + limit);
+                    return Optional.of(toPage(all.subList(i + 1, to), to < all.size()));
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Instala la ventana leída de la BD (orden cronológico) salvo que haya
+     * cambiado el proyecto desde {@code loadStartedAt}
+     */
+    public void install(
+            Long projectId,
+            long loadStartedAt,
+            List<ChatMessageDTO.Response> chronological,
+            boolean truncated) {
+        if (!windows.containsKey(projectId) && windows.size() >= maxProjects) {
+            evictLeastRecentlyUsed();
+        }
+
+        windows.compute(projectId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+
+            Change change = changes.get(id);
+            if (change != null && change.sequence > loadStartedAt) {
+                log.debug("Recent window for project {} changed during load, not cached", id);
+                return null;
+            }
+
+            Window window = new Window();
+            int from = Math.max(0, chronological.size() - windowSize);
+            window.messages.addAll(chronological.subList(from, chronological.size()));
+            window.truncated = truncated || from > 0;
+            return window;
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChatEvent(ChatMessageDTO.Event event) {
+        // compute serializa el evento con install() para el mismo proyecto
+        windows.compute(event.getProjectId(), (id, window) -> {
+            changes.put(id, new Change(sequence.incrementAndGet(), System.currentTimeMillis()));
+
+            if (window != null) {
+                synchronized (window) {
+                    apply(window, event);
+                }
+            }
+            return window;
+        });
+    }
+
+    /**
+     * Libera las ventanas de proyectos sin lecturas recientes
+     */
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000;
+
+        int before = windows.size();
+        windows.entrySet().removeIf(entry -> entry.getValue().lastAccess < cutoff);
+        changes.entrySet().removeIf(entry -> entry.getValue().at < cutoff);
+
+        int evicted = before - windows.size();
+        if (evicted > 0) {
+            log.info("Evicted {} idle chat windows ({} remaining)", evicted, windows.size());
+        }
+    }
+
+    private void apply(Window window, ChatMessageDTO.Event event) {
+        ChatMessageDTO.Response message = event.getMessage();
+
+        switch (event.getType()) {
+            case CREATED -> {
+                if (message.getParentMessageId() != null) {
+                    replaceById(window, message.getParentMessageId(), parent -> withReply(parent, message));
+                } else {
+                    insert(window, message);
+                }
+            }
+            case UPDATED, PINNED, UNPINNED ->
+                    replaceById(window, event.getMessageId(), current -> message);
+            // El historial no incluye eliminados: la ventana tampoco
+            case DELETED ->
+                    window.messages.removeIf(existing -> existing.getId().equals(event.getMessageId()));
+            case REACTION_UPDATED ->
+                    replaceById(window, event.getMessageId(), current -> current.toBuilder()
+                            .reactionCounts(event.getReactions().getReactionCounts())
+                            .build());
+        }
+    }
+
+    private void insert(Window window, ChatMessageDTO.Response message) {
+        List<ChatMessageDTO.Response> all = new ArrayList<>(window.messages);
+        all.removeIf(existing -> existing.getId().equals(message.getId()));
+        all.add(message);
+        all.sort(CHRONOLOGICAL);
+
+        window.messages.clear();
+        window.messages.addAll(all);
+        while (window.messages.size() > windowSize) {
+            window.messages.pollFirst();
+            window.truncated = true;
+        }
+    }
+
+    private void replaceById(
+            Window window,
+            Long messageId,
+            UnaryOperator<ChatMessageDTO.Response> update) {
+        List<ChatMessageDTO.Response> all = new ArrayList<>(window.messages);
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i).getId().equals(messageId)) {
+                // Copia nueva: las páginas ya entregadas no cambian bajo el serializador
+                all.set(i, update.apply(all.get(i)));
+                window.messages.clear();
+                window.messages.addAll(all);
+                return;
+            }
+        }
+    }
+
+    private ChatMessageDTO.Response withReply(
+            ChatMessageDTO.Response parent,
+            ChatMessageDTO.Response reply) {
+        Set<Long> repliers = new LinkedHashSet<>();
+        if (reply.getSender() != null) {
+            repliers.add(reply.getSender().getId());
+        }
+        if (parent.getLastReplierIds() != null) {
+            repliers.addAll(parent.getLastReplierIds());
+        }
+
+        return parent.toBuilder()
+                .replyCount((parent.getReplyCount() != null ? parent.getReplyCount() : 0) + 1)
+                .lastReplyAt(reply.getCreatedAt() != null ? reply.getCreatedAt() : LocalDateTime.now())
+                .lastReplierIds(repliers.stream().limit(MAX_REPLIERS).collect(Collectors.toList()))
+                .build();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        windows.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                .ifPresent(entry -> windows.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private ChatMessageDTO.CursorPage toPage(List<ChatMessageDTO.Response> page, boolean hasMore) {
+        return ChatMessageDTO.CursorPage.builder()
+                .messages(new ArrayList<>(page))
+                .beforeCursor(page.isEmpty() ? null : page.get(0).getId())
+                .afterCursor(page.isEmpty() ? null : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static final class Window {
+        private final ArrayDeque<ChatMessageDTO.Response> messages = new ArrayDeque<>();
+        private boolean truncated;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    private static final class Change {
+        private final long sequence;
+        private final long at;
+
+        private Change(long sequence, long at) {
+            this.sequence = sequence;
+            this.at = at;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ChatMessageDTO;
+import com.taskmanager.mapper.ChatMessageMapper;
+import com.taskmanager.model.ChatMessage;
+import com.taskmanager.Repositorios.ChatMessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda en el chat del proyecto (N°13)
+ *
+ * En MySQL usa un índice FULLTEXT sobre chat_messages.content (InnoDB lo
+ * mantiene en cada INSERT/UPDATE, incluido el borrado lógico que vacía el
+ * contenido). El índice se crea con db/chat_fulltext_index.sql, fuera del
+ * arranque. Los resultados se ordenan por relevancia.
+ *
+ * El score de MySQL se recalcula en cada consulta y varía cuando entran
+ * mensajes nuevos, así que no sirve como cursor: la primera página guarda
+ * en memoria los IDs ya ordenados (hasta MAX_RANKED_RESULTS) y el cursor
+ * es "token:posición" sobre esa lista. Las páginas siguientes no repiten
+ * ni saltan resultados; el ranking guardado expira a los pocos minutos.
+ * En otras bases (H2) se usa LIKE paginado por ID.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatSearchService {
+
+    private static final String FULLTEXT_INDEX = "ft_chat_content";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
+    // Tope de resultados por búsqueda y vida del ranking guardado
+    private static final int MAX_RANKED_RESULTS = 500;
+    private static final long RANKING_TTL_MINUTES = 10;
+    private static final int MAX_RANKINGS = 1000;
+
+    // innodb_ft_min_token_size por defecto: términos más cortos no se indexan
+    private static final int MIN_TOKEN_SIZE = 3;
+    private static final int SNIPPET_BEFORE = 60;
+    private static final int SNIPPET_AFTER = 120;
+
+    private static final Pattern TERM = Pattern.compile("[\\p{L}\\p{N}_]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChatMessageRepository messageRepository;
+    private final ChatMessageMapper messageMapper;
+
+    private volatile boolean fullTextEnabled = false;
+
+    private final Map<String, Ranking> rankings = new ConcurrentHashMap<>();
+
+    /**
+     * IDs y scores de una búsqueda, en el orden de la primera consulta
+     */
+    private record Ranking(Long projectId, List<ChatMessageRepository.SearchHit> hits, LocalDateTime createdAt) {
+    }
+
+    /**
+     * Activa FULLTEXT si el índice existe. No lo crea: un ALTER TABLE al
+     * arrancar reconstruiría y bloquearía chat_messages en cada nodo
+     * (ver db/chat_fulltext_index.sql)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeFullTextIndex() {
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+
+            if (product == null || !product.toLowerCase(Locale.ROOT).contains("mysql")) {
+                log.info("Chat search: FULLTEXT not available on {}, using LIKE fallback", product);
+                return;
+            }
+
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.statistics " +
+                            "WHERE table_schema = DATABASE() AND table_name = 'chat_messages' " +
+                            "AND index_name = ?",
+                    Integer.class, FULLTEXT_INDEX);
+
+            if (existing == null || existing == 0) {
+                log.warn("Chat search: FULLTEXT index {} missing, using LIKE fallback "
+                        + "(create it with db/chat_fulltext_index.sql)", FULLTEXT_INDEX);
+                return;
+            }
+
+            fullTextEnabled = true;
+            log.info("Chat search: FULLTEXT index {} ready", FULLTEXT_INDEX);
+
+        } catch (DataAccessException e) {
+            log.warn("Chat search: could not check FULLTEXT index, using LIKE fallback: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * El acceso al proyecto lo valida ChatMessageService antes de llamar aquí
+     */
+    @Transactional(readOnly = true)
+    public ChatMessageDTO.SearchResult search(
+            Long projectId,
+            String keyword,
+            String cursor,
+            Integer size) {
+        List<String> terms = extractTerms(keyword);
+        if (terms.isEmpty()) {
+            return ChatMessageDTO.SearchResult.builder()
+                    .hits(List.of())
+                    .hasMore(false)
+                    .build();
+        }
+
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        List<String> indexedTerms = terms.stream()
+                .filter(term -> term.length() >= MIN_TOKEN_SIZE)
+                .collect(Collectors.toList());
+
+        if (fullTextEnabled && !indexedTerms.isEmpty()) {
+            return searchFullText(projectId, indexedTerms, terms, cursor, limit);
+        }
+
+        return searchLike(projectId, keyword.trim(), terms, cursor, limit, pageable);
+    }
+
+    private ChatMessageDTO.SearchResult searchFullText(
+            Long projectId,
+            List<String> indexedTerms,
+            List<String> terms,
+            String cursor,
+            int limit) {
+        // Modo booleano: todos los términos obligatorios, con prefijo (búsqueda al teclear)
+        String query = indexedTerms.stream()
+                .map(term -> "+" + term + "*")
+                .collect(Collectors.joining(" "));
+
+        String token;
+        int offset;
+        List<ChatMessageRepository.SearchHit> ranked;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido");
+            }
+            token = parts[0];
+            offset = parseOffset(parts[1]);
+
+            Ranking ranking = rankings.get(token);
+            if (ranking == null || !ranking.projectId().equals(projectId) || isExpired(ranking)) {
+                throw new IllegalArgumentException("La búsqueda expiró, vuelva a buscar");
+            }
+            ranked = ranking.hits();
+        } else {
+            ranked = messageRepository.searchFullText(
+                    projectId, query, PageRequest.of(0, MAX_RANKED_RESULTS));
+            token = null;
+            offset = 0;
+        }
+
+        int to = Math.min(offset + limit, ranked.size());
+        List<ChatMessageRepository.SearchHit> page = offset < to ? ranked.subList(offset, to) : List.of();
+        boolean hasMore = to < ranked.size();
+
+        // Solo se guarda el ranking si hay más de una página
+        if (hasMore && token == null) {
+            token = storeRanking(projectId, ranked);
+        }
+
+        Map<Long, ChatMessage> messages = messageRepository
+                .findAllById(page.stream().map(ChatMessageRepository.SearchHit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ChatMessage::getId, Function.identity()));
+
+        List<ChatMessageDTO.SearchHit> hits = new ArrayList<>();
+        for (ChatMessageRepository.SearchHit row : page) {
+            ChatMessage message = messages.get(row.getId());
+            // Un mensaje borrado después de la primera página se omite
+            if (message != null && !Boolean.TRUE.equals(message.getDeleted())) {
+                hits.add(toHit(message, row.getScore(), terms));
+            }
+        }
+
+        return ChatMessageDTO.SearchResult.builder()
+                .hits(hits)
+                .nextCursor(hasMore ? token + ":" + to : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private String storeRanking(Long projectId, List<ChatMessageRepository.SearchHit> ranked) {
+        rankings.values().removeIf(this::isExpired);
+
+        // Tope de memoria: descarta la búsqueda más antigua
+        if (rankings.size() >= MAX_RANKINGS) {
+            rankings.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().createdAt()))
+                    .ifPresent(oldest -> rankings.remove(oldest.getKey()));
+        }
+
+        String token = UUID.randomUUID().toString().replace("-", "");
+        rankings.put(token, new Ranking(projectId, List.copyOf(ranked), LocalDateTime.now()));
+        return token;
+    }
+
+    private boolean isExpired(Ranking ranking) {
+        return ranking.createdAt().isBefore(LocalDateTime.now().minusMinutes(RANKING_TTL_MINUTES));
+    }
+
+    private ChatMessageDTO.SearchResult searchLike(
+            Long projectId,
+            String keyword,
+            List<String> terms,
+            String cursor,
+            int limit,
+            Pageable pageable) {
+        Long beforeId = cursor != null && !cursor.isBlank() ? parseId(cursor) : Long.MAX_VALUE;
+
+        List<ChatMessage> rows = messageRepository.searchMessagesBefore(
+                projectId, keyword, beforeId, pageable);
+
+        boolean hasMore = rows.size() > limit;
+        List<ChatMessage> page = hasMore ? rows.subList(0, limit) : rows;
+
+        List<ChatMessageDTO.SearchHit> hits = page.stream()
+                .map(message -> toHit(message, null, terms))
+                .collect(Collectors.toList());
+
+        return ChatMessageDTO.SearchResult.builder()
+                .hits(hits)
+                .nextCursor(hasMore && !page.isEmpty()
+                        ? String.valueOf(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private ChatMessageDTO.SearchHit toHit(ChatMessage message, Double score, List<String> terms) {
+        return ChatMessageDTO.SearchHit.builder()
+                .message(messageMapper.messageToResponse(message))
+                .score(score)
+                .snippet(buildSnippet(message.getContent(), terms))
+                .build();
+    }
+
+    /**
+     * Fragmento alrededor de la primera coincidencia, escapado y con <mark>
+     */
+    private String buildSnippet(String content, List<String> terms) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+
+        Pattern highlight = Pattern.compile(
+                terms.stream().map(Pattern::quote).collect(Collectors.joining("|")),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+        Matcher first = highlight.matcher(content);
+        int start = 0;
+        int end = Math.min(content.length(), SNIPPET_BEFORE + SNIPPET_AFTER);
+        if (first.find()) {
+            start = Math.max(0, first.start() - SNIPPET_BEFORE);
+            end = Math.min(content.length(), first.end() + SNIPPET_AFTER);
+        }
+
+        String fragment = content.substring(start, end);
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("…");
+        }
+
+        Matcher matcher = highlight.matcher(fragment);
+        int position = 0;
+        while (matcher.find()) {
+            snippet.append(escapeHtml(fragment.substring(position, matcher.start())))
+                    .append("<mark>")
+                    .append(escapeHtml(matcher.group()))
+                    .append("</mark>");
+            position = matcher.end();
+        }
+        snippet.append(escapeHtml(fragment.substring(position)));
+
+        if (end < content.length()) {
+            snippet.append("…");
+        }
+        return snippet.toString();
+    }
+
+    private List<String> extractTerms(String keyword) {
+        if (keyword == null) {
+            return List.of();
+        }
+
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = TERM.matcher(keyword);
+        while (matcher.find()) {
+            terms.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return terms.stream().distinct().collect(Collectors.toList());
+    }
+
+    private String escapeHtml(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&#39;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private int parseOffset(String value) {
+        try {
+            int offset = Integer.parseInt(value);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Cursor de búsqueda inválido");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de búsqueda inválido");
+        }
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de búsqueda inválido");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.Repositorios.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+/**
+ * Export CSV de tareas
+ *
+ * Las filas salen de streamExportRows (streaming JDBC, sin entidades) y se
+ * escriben una a una al archivo: la memoria no crece con la cantidad de
+ * tareas del proyecto.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CsvExportWriter implements ExportFormatWriter {
+
+    private static final String[] HEADERS = {
+            "ID", "Tarea padre", "Título", "Descripción", "Estado", "Prioridad", "Proceso",
+            "Asignados", "Inicio", "Fecha límite", "Completada", "Avance (%)",
+            "Horas estimadas", "Horas reales", "Creada", "Actualizada"
+    };
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final TaskRepository taskRepository;
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.CSV;
+    }
+
+    @Override
+    public String getExtension() {
+        return "csv";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int write(Long projectId, Path target, ExportExecution execution) throws Exception {
+        int count = 0;
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            // BOM antes del encabezado: Excel abre el archivo como UTF-8 (acentos)
+            writer.write('\uFEFF');
+
+            taskRepository.raiseGroupConcatLimit();
+            try (CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(HEADERS).build());
+                 Stream<TaskRepository.ExportRow> rows = taskRepository.streamExportRows(projectId)) {
+
+                for (TaskRepository.ExportRow row : (Iterable<TaskRepository.ExportRow>) rows::iterator) {
+                    execution.rowWritten();
+
+                    printer.printRecord(
+                            row.getId(),
+                            row.getParentTaskId(),
+                            row.getTitle(),
+                            row.getDescription(),
+                            Task.TaskStatus.valueOf(row.getStatus()).getDisplayName(),
+                            Task.TaskPriority.valueOf(row.getPriority()).getDisplayName(),
+                            row.getProcessName(),
+                            row.getAssignees(),
+                            format(row.getStartDate()),
+                            format(row.getDueDate()),
+                            format(row.getCompletedAt()),
+                            row.getCompletionPercentage(),
+                            row.getEstimatedHours(),
+                            row.getActualHours(),
+                            format(row.getCreatedAt()),
+                            format(row.getUpdatedAt())
+                    );
+                    count++;
+                }
+            }
+        }
+
+        log.info("📄 CSV export for project {}: {} tasks", projectId, count);
+        return count;
+    }
+
+    private String format(LocalDateTime value) {
+        return value != null ? value.format(DATE_FORMAT) : "";
+    }
+}
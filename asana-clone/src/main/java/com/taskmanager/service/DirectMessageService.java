@@ -1,6 +1,7 @@
 package com.taskmanager.service;
 
 import com.taskmanager.dto.DirectMessageDTO;
+import com.taskmanager.dto.UserDTO;
 import com.taskmanager.exception.ResourceNotFoundException;
 import com.taskmanager.mapper.DirectMessageMapper;
 import com.taskmanager.mapper.UserMapper;
@@ -8,12 +9,14 @@ import com.taskmanager.model.*;
 import com.taskmanager.Repositorios.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,12 +27,19 @@ import java.util.stream.Collectors;
 public class DirectMessageService {
 
     private final DirectMessageRepository messageRepository;
+    private final DirectMessageReactionRepository reactionRepository;
     private final UserRepository userRepository;
-    private final UserBlockRepository blockRepository;
-    private final ProjectRepository projectRepository;
+    private final UserBlockService blockService;
     private final DirectMessageMapper messageMapper;
     private final UserMapper userMapper;
     private final NotificationService notificationService;
+    private final DmConversationService conversationService;
+    private final SharedProjectService sharedProjectService;
+    private final DmPresenceService presenceService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
 
     public DirectMessageDTO.Response sendMessage(
             DirectMessageDTO.SendRequest request,
@@ -47,7 +57,7 @@ public class DirectMessageService {
         }
 
         // Verificar bloqueos
-        if (blockRepository.existsByBlockerIdAndBlockedId(request.getReceiverId(), senderId)) {
+        if (blockService.isBlocked(request.getReceiverId(), senderId)) {
             throw new AccessDeniedException("Este usuario te ha bloqueado");
         }
 
@@ -64,10 +74,33 @@ public class DirectMessageService {
         DirectMessage saved = messageRepository.save(message);
         log.info("Direct message sent successfully with ID: {}", saved.getId());
 
+        // Bandeja materializada de ambos participantes (misma transacción)
+        conversationService.recordMessage(saved);
+
         // Crear notificación
         createMessageNotification(saved, sender, receiver);
 
-        return messageMapper.messageToResponse(saved);
+        DirectMessageDTO.Response response = messageMapper.messageToResponse(saved);
+
+        // El mensaje reemplaza al indicador de escritura del remitente
+        presenceService.clearTyping(senderId, receiver.getId());
+        publishEvent(DirectMessageDTO.Event.builder()
+                .type(DirectMessageDTO.EventType.CREATED)
+                .recipientId(receiver.getId())
+                .conversationId(saved.getConversationId())
+                .messageId(saved.getId())
+                .message(response)
+                .unreadCount(conversationService.countUnread(receiver.getId()))
+                .build());
+        publishEvent(DirectMessageDTO.Event.builder()
+                .type(DirectMessageDTO.EventType.CREATED)
+                .recipientId(senderId)
+                .conversationId(saved.getConversationId())
+                .messageId(saved.getId())
+                .message(response)
+                .build());
+
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -87,16 +120,87 @@ public class DirectMessageService {
         return messageMapper.messagesToResponses(messages);
     }
 
+    /**
+     * Historial con cursor: before = más antiguos, after = más nuevos.
+     * Sin cursor devuelve la última página.
+     */
+    @Transactional(readOnly = true)
+    public DirectMessageDTO.CursorPage getConversationHistory(
+            Long userId,
+            Long otherUserId,
+            Long before,
+            Long after,
+            Integer size) {
+        log.debug("Fetching conversation history between {} and {} (before={}, after={})",
+                userId, otherUserId, before, after);
+
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use solo uno de los cursores: before o after");
+        }
+
+        String conversationId = DirectMessage.generateConversationId(userId, otherUserId);
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(0, limit + 1);
+
+        if (after != null) {
+            List<DirectMessage> rows = messageRepository.findPageAfter(
+                    conversationId, resolveCursor(conversationId, after), after, pageable);
+            return toCursorPage(rows, limit, false);
+        }
+
+        List<DirectMessage> rows = before != null
+                ? messageRepository.findPageBefore(conversationId, resolveCursor(conversationId, before), before, pageable)
+                : messageRepository.findLatestPage(conversationId, pageable);
+
+        return toCursorPage(rows, limit, true);
+    }
+
+    private LocalDateTime resolveCursor(String conversationId, Long messageId) {
+        return messageRepository.findCreatedAtInConversation(conversationId, messageId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Mensaje no encontrado con ID: " + messageId
+                ));
+    }
+
+    /**
+     * Construye la página a partir de limit + 1 filas (la extra indica si hay más).
+     * Los mensajes se devuelven siempre en orden cronológico.
+     */
+    private DirectMessageDTO.CursorPage toCursorPage(
+            List<DirectMessage> rows,
+            int limit,
+            boolean newestFirst) {
+        boolean hasMore = rows.size() > limit;
+        List<DirectMessage> page = new ArrayList<>(hasMore ? rows.subList(0, limit) : rows);
+
+        if (newestFirst) {
+            Collections.reverse(page);
+        }
+
+        return DirectMessageDTO.CursorPage.builder()
+                .messages(messageMapper.messagesToResponses(page))
+                .beforeCursor(page.isEmpty() ? null : page.get(0).getId())
+                .afterCursor(page.isEmpty() ? null : page.get(page.size() - 1).getId())
+                .hasMore(hasMore)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public List<DirectMessageDTO.ConversationSummary> getConversations(Long userId) {
         log.debug("Fetching conversations for user {}", userId);
 
-        List<String> conversationIds = messageRepository.findConversationIdsByUserId(userId);
+        List<DmConversation> inbox = conversationService.getInbox(userId);
+        if (inbox.isEmpty()) {
+            return List.of();
+        }
+
+        // Remitente del último mensaje: el propio usuario o el otro participante
+        UserDTO.Summary self = userRepository.findById(userId)
+                .map(userMapper::userToSummary)
+                .orElse(null);
 
-        return conversationIds.stream()
-                .map(convId -> buildConversationSummary(convId, userId))
-                .filter(Objects::nonNull)
-                .sorted((a, b) -> b.getLastMessageAt().compareTo(a.getLastMessageAt()))
+        return inbox.stream()
+                .map(conversation -> toConversationSummary(conversation, self))
                 .collect(Collectors.toList());
     }
 
@@ -113,11 +217,19 @@ public class DirectMessageService {
             throw new AccessDeniedException("Solo el autor puede editar el mensaje");
         }
 
-        message.setContent(request.getContent());
-        message.markAsEdited();
+        // Solo content/edited: is_read no se toca
+        if (messageRepository.updateContent(messageId, userId, request.getContent(), LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Mensaje no encontrado");
+        }
+
+        DirectMessage updated = messageRepository.findById(messageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado"));
+        conversationService.refreshPreview(updated);
+
+        DirectMessageDTO.Response response = messageMapper.messageToResponse(updated);
+        publishToParticipants(DirectMessageDTO.EventType.UPDATED, updated, response);
 
-        DirectMessage updated = messageRepository.save(message);
-        return messageMapper.messageToResponse(updated);
+        return response;
     }
 
     public void deleteMessage(Long messageId, Long userId) {
@@ -130,115 +242,221 @@ public class DirectMessageService {
             throw new AccessDeniedException("Solo el autor puede eliminar el mensaje");
         }
 
-        message.softDelete();
-        messageRepository.save(message);
+        // Un mensaje eliminado deja de contar como no leído: se descuenta
+        // solo si el UPDATE condicional lo encontró sin leer
+        LocalDateTime now = LocalDateTime.now();
+        int unread = messageRepository.softDeleteIfUnread(messageId, userId, DirectMessage.DELETED_CONTENT, now);
+        if (unread > 0) {
+            conversationService.markRead(message.getReceiver().getId(), message.getConversationId(), unread);
+        } else if (messageRepository.softDelete(messageId, userId, DirectMessage.DELETED_CONTENT, now) == 0) {
+            // Ya estaba eliminado
+            return;
+        }
+
+        DirectMessage deleted = messageRepository.findById(messageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado"));
+        conversationService.refreshPreview(deleted);
+
+        publishToParticipants(DirectMessageDTO.EventType.DELETED, deleted, null);
     }
 
-    public DirectMessageDTO.Response addReaction(
+    public DirectMessageDTO.ReactionSummary addReaction(
             Long messageId,
             String emoji,
             Long userId) {
         log.info("Adding reaction {} to message {}", emoji, messageId);
 
-        DirectMessage message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado"));
+        validateParticipant(messageId, userId);
 
-        message.addReaction(emoji, userId);
-        DirectMessage updated = messageRepository.save(message);
+        // Una sola fila: si la reacción ya existía el total no cambia
+        if (reactionRepository.insertReaction(messageId, userId, emoji) > 0) {
+            reactionRepository.incrementCount(messageId, emoji);
+        }
 
-        return messageMapper.messageToResponse(updated);
+        return reactionSummary(messageId, userId);
     }
 
-    public DirectMessageDTO.Response removeReaction(
+    public DirectMessageDTO.ReactionSummary removeReaction(
             Long messageId,
             String emoji,
             Long userId) {
         log.info("Removing reaction {} from message {}", emoji, messageId);
 
-        DirectMessage message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado"));
+        validateParticipant(messageId, userId);
 
-        message.removeReaction(emoji, userId);
-        DirectMessage updated = messageRepository.save(message);
+        if (reactionRepository.deleteReaction(messageId, userId, emoji) > 0) {
+            reactionRepository.decrementCount(messageId, emoji);
+            reactionRepository.deleteEmptyCount(messageId, emoji);
+        }
+
+        return reactionSummary(messageId, userId);
+    }
 
-        return messageMapper.messageToResponse(updated);
+    private void validateParticipant(Long messageId, Long userId) {
+        if (!messageRepository.existsActiveForParticipant(messageId, userId)) {
+            throw new ResourceNotFoundException("Mensaje no encontrado");
+        }
+    }
+
+    private DirectMessageDTO.ReactionSummary reactionSummary(Long messageId, Long userId) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (DirectMessageReactionRepository.EmojiCount count : reactionRepository.findCountsByMessageId(messageId)) {
+            counts.put(count.getEmoji(), count.getTotal());
+        }
+
+        return DirectMessageDTO.ReactionSummary.builder()
+                .messageId(messageId)
+                .reactionCounts(counts)
+                .userReactions(reactionRepository.findEmojisByMessageIdAndUserId(messageId, userId))
+                .build();
     }
 
     public void markAsRead(Long messageId, Long userId) {
         DirectMessage message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Mensaje no encontrado"));
 
-        if (message.getReceiver().getId().equals(userId) && !message.getIsRead()) {
-            message.markAsRead();
-            messageRepository.save(message);
+        // UPDATE condicional, igual que markConversationAsRead: solo descuenta
+        // quien realmente pasó el mensaje a leído
+        LocalDateTime readAt = LocalDateTime.now();
+        int updated = messageRepository.markAsReadIfUnread(messageId, userId, readAt);
+        if (updated > 0) {
+            conversationService.markRead(userId, message.getConversationId(), updated);
+
+            publishReadReceipt(userId, message.getSender().getId(),
+                    message.getConversationId(), message.getId(), readAt);
         }
     }
 
     @Transactional
     public void markConversationAsRead(Long userId, Long otherUserId) {
         String conversationId = DirectMessage.generateConversationId(userId, otherUserId);
-        messageRepository.markAllAsReadInConversation(conversationId, userId);
+        int updated = messageRepository.markAllAsReadInConversation(conversationId, userId);
+        conversationService.markRead(userId, conversationId, updated);
+
+        if (updated > 0) {
+            publishReadReceipt(userId, otherUserId, conversationId, null, LocalDateTime.now());
+        }
     }
 
     @Transactional(readOnly = true)
     public long countUnreadMessages(Long userId) {
-        return messageRepository.countUnreadByUser(userId);
+        return conversationService.countUnread(userId);
     }
 
-    private DirectMessageDTO.ConversationSummary buildConversationSummary(
-            String conversationId,
-            Long userId) {
+    /**
+     * Presencia solo de contactos (conversación o proyecto en común) y sin
+     * bloqueos en ningún sentido; el resto de los IDs se omite
+     */
+    @Transactional(readOnly = true)
+    public List<DirectMessageDTO.Presence> getPresence(Long userId, Set<Long> userIds) {
+        Set<Long> visible = visibleContacts(userId, userIds);
+        if (visible.isEmpty()) {
+            return List.of();
+        }
+        return presenceService.getPresence(visible);
+    }
 
-        Optional<DirectMessage> lastMessageOpt = messageRepository
-                .findFirstByConversationIdOrderByCreatedAtDesc(conversationId);
+    /**
+     * Mismo criterio que la presencia, para señales como "escribiendo..."
+     */
+    @Transactional(readOnly = true)
+    public boolean isVisibleContact(Long userId, Long otherUserId) {
+        return !visibleContacts(userId, Set.of(otherUserId)).isEmpty();
+    }
 
-        if (lastMessageOpt.isEmpty()) {
-            return null;
+    private Set<Long> visibleContacts(Long userId, Set<Long> userIds) {
+        Set<Long> contacts = conversationService.findContactIds(userId, userIds);
+        if (contacts.isEmpty()) {
+            return contacts;
         }
+        return blockService.withoutBlocked(userId, contacts);
+    }
 
-        DirectMessage lastMessage = lastMessageOpt.get();
+    /**
+     * Confirmación de lectura para el remitente y nuevo total para el lector
+     * (sus otras pestañas). messageId nulo = toda la conversación.
+     */
+    private void publishReadReceipt(
+            Long readerId,
+            Long senderId,
+            String conversationId,
+            Long messageId,
+            LocalDateTime readAt) {
+        publishEvent(DirectMessageDTO.Event.builder()
+                .type(DirectMessageDTO.EventType.READ)
+                .recipientId(senderId)
+                .conversationId(conversationId)
+                .messageId(messageId)
+                .readerId(readerId)
+                .readAt(readAt)
+                .build());
+        publishEvent(DirectMessageDTO.Event.builder()
+                .type(DirectMessageDTO.EventType.READ)
+                .recipientId(readerId)
+                .conversationId(conversationId)
+                .messageId(messageId)
+                .readerId(readerId)
+                .readAt(readAt)
+                .unreadCount(conversationService.countUnread(readerId))
+                .build());
+    }
 
-        // Determinar el otro usuario
-        User otherUser = lastMessage.getSender().getId().equals(userId)
-                ? lastMessage.getReceiver()
-                : lastMessage.getSender();
+    private void publishToParticipants(
+            DirectMessageDTO.EventType type,
+            DirectMessage message,
+            DirectMessageDTO.Response response) {
+        for (Long recipientId : List.of(message.getSender().getId(), message.getReceiver().getId())) {
+            publishEvent(DirectMessageDTO.Event.builder()
+                    .type(type)
+                    .recipientId(recipientId)
+                    .conversationId(message.getConversationId())
+                    .messageId(message.getId())
+                    .message(response)
+                    .build());
+        }
+    }
 
-        long unreadCount = messageRepository.countUnreadInConversation(conversationId, userId);
+    /**
+     * DmBroadcastService lo envía a la cola del usuario después del commit
+     */
+    private void publishEvent(DirectMessageDTO.Event event) {
+        event.setOccurredAt(LocalDateTime.now());
+        eventPublisher.publishEvent(event);
+    }
+
+    private DirectMessageDTO.ConversationSummary toConversationSummary(
+            DmConversation conversation, UserDTO.Summary self) {
+        User otherUser = conversation.getOtherUser();
+        UserDTO.Summary other = userMapper.userToSummary(otherUser);
 
         // Buscar proyectos compartidos
-        Set<String> sharedProjectNames = findSharedProjects(userId, otherUser.getId());
-        boolean isProjectMember = !sharedProjectNames.isEmpty();
+        Set<String> sharedProjectNames = sharedProjectService.getSharedProjectNames(conversation.getUserId(), otherUser.getId());
+
+        // Vista previa guardada en la bandeja: no se carga el mensaje
+        boolean sentBySelf = conversation.getUserId().equals(conversation.getLastSenderId());
+        DirectMessageDTO.Response lastMessage = DirectMessageDTO.Response.builder()
+                .id(conversation.getLastMessageId())
+                .conversationId(conversation.getConversationId())
+                .sender(sentBySelf ? self : other)
+                .receiver(sentBySelf ? other : self)
+                .content(conversation.getLastMessagePreview())
+                .createdAt(conversation.getLastMessageAt())
+                .build();
 
         return DirectMessageDTO.ConversationSummary.builder()
-                .conversationId(conversationId)
-                .otherUser(userMapper.userToSummary(otherUser))
-                .lastMessage(messageMapper.messageToResponse(lastMessage))
-                .unreadCount(unreadCount)
-                .lastMessageAt(lastMessage.getCreatedAt())
+                .conversationId(conversation.getConversationId())
+                .otherUser(other)
+                .lastMessage(lastMessage)
+                .unreadCount(conversation.getUnreadCount().longValue())
+                .lastMessageAt(conversation.getLastMessageAt())
                 .sharedProjectNames(sharedProjectNames)
-                .isProjectMember(isProjectMember)
+                .isProjectMember(!sharedProjectNames.isEmpty())
                 .build();
     }
 
-    private Set<String> findSharedProjects(Long userId1, Long userId2) {
-        // FIX: Usar el método correcto que existe en ProjectRepository
-        List<Project> projects1 = projectRepository.findAllByUserId(userId1);
-        List<Project> projects2 = projectRepository.findAllByUserId(userId2);
-
-        // Encontrar proyectos en común comparando por ID
-        Set<Long> projectIds1 = projects1.stream()
-                .map(Project::getId)
-                .collect(Collectors.toSet());
-
-        return projects2.stream()
-                .filter(p -> projectIds1.contains(p.getId()))
-                .map(Project::getName)
-                .collect(Collectors.toSet());
-    }
-
     private void createMessageNotification(DirectMessage message, User sender, User receiver) {
         // Buscar proyectos compartidos
-        Set<String> sharedProjects = findSharedProjects(sender.getId(), receiver.getId());
+        Set<String> sharedProjects = sharedProjectService.getSharedProjectNames(sender.getId(), receiver.getId());
 
         String title = "Nuevo mensaje de " + sender.getFullName();
         String description;
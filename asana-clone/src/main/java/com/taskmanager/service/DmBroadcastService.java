@@ -0,0 +1,53 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.DirectMessageDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Entrega en tiempo real de mensajes directos
+ *
+ * Cada evento va a la cola privada del destinatario
+ * (/user/queue/direct-messages) solo después del commit. Si el usuario no
+ * tiene sesiones abiertas no se envía nada: lo verá al consultar por REST.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DmBroadcastService {
+
+    public static final String EVENTS_QUEUE = "/queue/direct-messages";
+    public static final String SIGNALS_QUEUE = "/queue/direct-messages/signals";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DmPresenceService presenceService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDirectMessageEvent(DirectMessageDTO.Event event) {
+        send(event.getRecipientId(), EVENTS_QUEUE, event);
+    }
+
+    /**
+     * Señales efímeras: se envían de inmediato, sin transacción
+     */
+    public void sendSignal(Long recipientId, DirectMessageDTO.Signal signal) {
+        send(recipientId, SIGNALS_QUEUE, signal);
+    }
+
+    private void send(Long recipientId, String destination, Object payload) {
+        presenceService.findConnectedPrincipal(recipientId).ifPresent(principal -> {
+            try {
+                messagingTemplate.convertAndSendToUser(principal, destination, payload);
+            } catch (MessagingException e) {
+                // El estado ya está guardado: el cliente lo recupera por REST
+                log.warn("Could not push direct message update to user {}: {}",
+                        recipientId, e.getMessage());
+            }
+        });
+    }
+}
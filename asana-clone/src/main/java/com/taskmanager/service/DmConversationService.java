@@ -0,0 +1,113 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.DirectMessage;
+import com.taskmanager.model.DmConversation;
+import com.taskmanager.Repositorios.DirectMessageRepository;
+import com.taskmanager.Repositorios.DmConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mantenimiento de la bandeja materializada de mensajes directos
+ *
+ * DirectMessageService llama a estos métodos dentro de su propia
+ * transacción: el mensaje y la fila de la bandeja se confirman juntos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class DmConversationService {
+
+    private static final int PREVIEW_LENGTH = 200;
+
+    private final DmConversationRepository conversationRepository;
+    private final DirectMessageRepository messageRepository;
+
+    /**
+     * Crea la bandeja a partir de los mensajes existentes si aún está vacía
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (conversationRepository.count() > 0 || messageRepository.count() == 0) {
+            return;
+        }
+
+        int rows = conversationRepository.rebuildFromMessages();
+        log.info("DM inbox backfilled with {} conversation rows", rows);
+    }
+
+    /**
+     * Un mensaje nuevo actualiza la fila de ambos participantes
+     */
+    public void recordMessage(DirectMessage message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        String preview = preview(message.getContent());
+
+        conversationRepository.upsertLastMessage(
+                senderId, receiverId, message.getConversationId(), message.getId(),
+                preview, senderId, message.getCreatedAt(), 0);
+        conversationRepository.upsertLastMessage(
+                receiverId, senderId, message.getConversationId(), message.getId(),
+                preview, senderId, message.getCreatedAt(), 1);
+    }
+
+    /**
+     * El receptor leyó {@code count} mensajes de la conversación
+     *
+     * count debe ser la cantidad de filas que un UPDATE condicional
+     * (is_read = false) pasó a leídas, nunca un valor calculado aparte:
+     * así dos lecturas simultáneas del mismo mensaje no lo descuentan dos veces.
+     */
+    public void markRead(Long userId, String conversationId, int count) {
+        if (count > 0) {
+            conversationRepository.decrementUnread(userId, conversationId, count);
+        }
+    }
+
+    /**
+     * Refleja la edición o el borrado del último mensaje en la vista previa
+     */
+    public void refreshPreview(DirectMessage message) {
+        conversationRepository.updatePreview(
+                message.getConversationId(), message.getId(), preview(message.getContent()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<DmConversation> getInbox(Long userId) {
+        return conversationRepository.findInbox(userId);
+    }
+
+    /**
+     * De los candidatos, con quién tiene conversación o proyecto en común
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findContactIds(Long userId, Collection<Long> candidateIds) {
+        if (candidateIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(conversationRepository.findContactIds(userId, candidateIds));
+    }
+
+    @Transactional(readOnly = true)
+    public long countUnread(Long userId) {
+        return conversationRepository.sumUnreadByUser(userId);
+    }
+
+    private String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        return content.length() <= PREVIEW_LENGTH ? content : content.substring(0, PREVIEW_LENGTH);
+    }
+}
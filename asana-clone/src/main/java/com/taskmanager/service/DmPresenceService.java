@@ -0,0 +1,173 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.DirectMessageDTO;
+import com.taskmanager.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Presencia y "escribiendo..." de los mensajes directos
+ *
+ * Todo vive en memoria con tiempo de vida: la presencia se deriva de las
+ * sesiones STOMP abiertas y el indicador de escritura expira solo si el
+ * cliente deja de enviarlo. Nada de esto toca la base de datos.
+ */
+@Service
+@Slf4j
+public class DmPresenceService {
+
+    public static final long TYPING_TTL_MILLIS = 6_000;
+
+    // Tiempo que se recuerda la última conexión de un usuario desconectado
+    private static final long LAST_SEEN_TTL_MILLIS = 30 * 60_000;
+
+    private final Map<Long, UserPresence> presence = new ConcurrentHashMap<>();
+
+    // "senderId:receiverId" -> expiración del indicador
+    private final Map<String, Long> typing = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        User user = extractUser(event.getUser());
+        String sessionId = (String) event.getMessage().getHeaders().get("simpSessionId");
+        if (user == null || sessionId == null) {
+            return;
+        }
+
+        presence.compute(user.getId(), (id, current) -> {
+            UserPresence entry = current != null ? current : new UserPresence(user.getUsername());
+            entry.sessionIds.add(sessionId);
+            entry.lastSeenAt = System.currentTimeMillis();
+            return entry;
+        });
+        log.debug("User {} connected (session {})", user.getId(), sessionId);
+    }
+
+    @EventListener
+    public void onSessionDisconnected(SessionDisconnectEvent event) {
+        User user = extractUser(event.getUser());
+        if (user == null) {
+            return;
+        }
+
+        presence.computeIfPresent(user.getId(), (id, entry) -> {
+            entry.sessionIds.remove(event.getSessionId());
+            entry.lastSeenAt = System.currentTimeMillis();
+            return entry;
+        });
+
+        // Al desconectarse deja de escribir en todas sus conversaciones
+        String prefix = user.getId() + ":";
+        typing.keySet().removeIf(key -> key.startsWith(prefix));
+        log.debug("User {} disconnected (session {})", user.getId(), event.getSessionId());
+    }
+
+    /**
+     * Nombre del principal STOMP si el usuario tiene al menos una sesión abierta
+     */
+    public Optional<String> findConnectedPrincipal(Long userId) {
+        UserPresence entry = presence.get(userId);
+        if (entry == null || entry.sessionIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.principalName);
+    }
+
+    /**
+     * Registra el estado de escritura. Devuelve true si hay que reenviarlo:
+     * cambió el estado o el indicador del destinatario está por expirar.
+     */
+    public boolean updateTyping(Long senderId, Long receiverId, boolean isTyping) {
+        String key = senderId + ":" + receiverId;
+        long now = System.currentTimeMillis();
+
+        if (!isTyping) {
+            Long previous = typing.remove(key);
+            return previous != null && previous > now;
+        }
+
+        Long previous = typing.put(key, now + TYPING_TTL_MILLIS);
+        return previous == null || previous - now < TYPING_TTL_MILLIS / 2;
+    }
+
+    /**
+     * Un mensaje enviado reemplaza al indicador de escritura
+     */
+    public void clearTyping(Long senderId, Long receiverId) {
+        typing.remove(senderId + ":" + receiverId);
+    }
+
+    public List<DirectMessageDTO.Presence> getPresence(Set<Long> userIds) {
+        return userIds.stream()
+                .map(this::toPresence)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Elimina indicadores vencidos y usuarios desconectados hace tiempo
+     */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+
+        typing.values().removeIf(expiresAt -> expiresAt <= now);
+
+        // computeIfPresent: la condición se evalúa con la entrada bloqueada,
+        // así una reconexión (compute en onSessionConnected) no se pierde
+        for (Long userId : presence.keySet()) {
+            presence.computeIfPresent(userId, (id, entry) ->
+                    entry.sessionIds.isEmpty() && now - entry.lastSeenAt > LAST_SEEN_TTL_MILLIS
+                            ? null : entry);
+        }
+    }
+
+    private DirectMessageDTO.Presence toPresence(Long userId) {
+        UserPresence entry = presence.get(userId);
+        if (entry == null) {
+            return DirectMessageDTO.Presence.builder()
+                    .userId(userId)
+                    .online(false)
+                    .build();
+        }
+
+        boolean online = !entry.sessionIds.isEmpty();
+        return DirectMessageDTO.Presence.builder()
+                .userId(userId)
+                .online(online)
+                .lastSeenAt(online ? null : LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(entry.lastSeenAt), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private User extractUser(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken token
+                && token.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return null;
+    }
+
+    private static final class UserPresence {
+        private final String principalName;
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+        private volatile long lastSeenAt;
+
+        private UserPresence(String principalName) {
+            this.principalName = principalName;
+        }
+    }
+}
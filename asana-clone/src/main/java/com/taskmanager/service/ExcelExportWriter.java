@@ -0,0 +1,224 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.Repositorios.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Export Excel (.xlsx) con POI SXSSF
+ *
+ * Solo las últimas export.excel.row-window filas de cada hoja quedan en
+ * memoria; el resto se vuelca a archivos temporales comprimidos. Una sola
+ * pasada por streamExportRows llena las hojas de tareas y subtareas, y el
+ * resumen por estado se escribe al final con los totales acumulados.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExcelExportWriter implements ExportFormatWriter {
+
+    private static final String[] TASK_HEADERS = {
+            "ID", "Título", "Estado", "Prioridad", "Proceso", "Asignados",
+            "Inicio", "Fecha límite", "Completada", "Avance (%)",
+            "Horas estimadas", "Horas reales", "Creada", "Actualizada"
+    };
+
+    private static final String[] SUBTASK_HEADERS = {
+            "ID", "Tarea padre", "Título", "Estado", "Prioridad", "Asignados",
+            "Fecha límite", "Completada", "Avance (%)", "Creada"
+    };
+
+    private final TaskRepository taskRepository;
+
+    @Value("${export.excel.row-window:100}")
+    private int rowWindow;
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.EXCEL;
+    }
+
+    @Override
+    public String getExtension() {
+        return "xlsx";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int write(Long projectId, Path target, ExportExecution execution) throws Exception {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+
+        try {
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            SXSSFSheet taskSheet = workbook.createSheet("Tareas");
+            SXSSFSheet subtaskSheet = workbook.createSheet("Subtareas");
+            SXSSFSheet summarySheet = workbook.createSheet("Resumen");
+
+            writeHeader(taskSheet, TASK_HEADERS, headerStyle);
+            writeHeader(subtaskSheet, SUBTASK_HEADERS, headerStyle);
+
+            Map<Task.TaskStatus, Integer> tasksByStatus = new EnumMap<>(Task.TaskStatus.class);
+            Map<Task.TaskStatus, Integer> subtasksByStatus = new EnumMap<>(Task.TaskStatus.class);
+            int taskRow = 1;
+            int subtaskRow = 1;
+
+            taskRepository.raiseGroupConcatLimit();
+            try (Stream<TaskRepository.ExportRow> rows = taskRepository.streamExportRows(projectId)) {
+                for (TaskRepository.ExportRow data : (Iterable<TaskRepository.ExportRow>) rows::iterator) {
+                    execution.rowWritten();
+
+                    Task.TaskStatus status = Task.TaskStatus.valueOf(data.getStatus());
+                    String priority = Task.TaskPriority.valueOf(data.getPriority()).getDisplayName();
+
+                    if (data.getParentTaskId() == null) {
+                        tasksByStatus.merge(status, 1, Integer::sum);
+
+                        Row row = taskSheet.createRow(taskRow++);
+                        int col = 0;
+                        setNumber(row, col++, data.getId());
+                        setText(row, col++, data.getTitle());
+                        setText(row, col++, status.getDisplayName());
+                        setText(row, col++, priority);
+                        setText(row, col++, data.getProcessName());
+                        setText(row, col++, data.getAssignees());
+                        setDate(row, col++, data.getStartDate(), dateStyle);
+                        setDate(row, col++, data.getDueDate(), dateStyle);
+                        setDate(row, col++, data.getCompletedAt(), dateStyle);
+                        setNumber(row, col++, data.getCompletionPercentage());
+                        setNumber(row, col++, data.getEstimatedHours());
+                        setNumber(row, col++, data.getActualHours());
+                        setDate(row, col++, data.getCreatedAt(), dateStyle);
+                        setDate(row, col, data.getUpdatedAt(), dateStyle);
+                    } else {
+                        subtasksByStatus.merge(status, 1, Integer::sum);
+
+                        Row row = subtaskSheet.createRow(subtaskRow++);
+                        int col = 0;
+                        setNumber(row, col++, data.getId());
+                        setNumber(row, col++, data.getParentTaskId());
+                        setText(row, col++, data.getTitle());
+                        setText(row, col++, status.getDisplayName());
+                        setText(row, col++, priority);
+                        setText(row, col++, data.getAssignees());
+                        setDate(row, col++, data.getDueDate(), dateStyle);
+                        setDate(row, col++, data.getCompletedAt(), dateStyle);
+                        setNumber(row, col++, data.getCompletionPercentage());
+                        setDate(row, col, data.getCreatedAt(), dateStyle);
+                    }
+                }
+            }
+
+            writeSummary(summarySheet, tasksByStatus, subtasksByStatus, headerStyle);
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                workbook.write(out);
+            }
+
+            int total = (taskRow - 1) + (subtaskRow - 1);
+            log.info("📊 Excel export for project {}: {} tasks, {} subtasks",
+                    projectId, taskRow - 1, subtaskRow - 1);
+            return total;
+
+        } finally {
+            // Borra los temporales de SXSSF
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private void writeSummary(
+            SXSSFSheet sheet,
+            Map<Task.TaskStatus, Integer> tasksByStatus,
+            Map<Task.TaskStatus, Integer> subtasksByStatus,
+            CellStyle headerStyle) {
+        writeHeader(sheet, new String[]{"Estado", "Tareas", "Subtareas", "Total"}, headerStyle);
+
+        int rowIndex = 1;
+        int totalTasks = 0;
+        int totalSubtasks = 0;
+
+        for (Task.TaskStatus status : Task.TaskStatus.values()) {
+            int tasks = tasksByStatus.getOrDefault(status, 0);
+            int subtasks = subtasksByStatus.getOrDefault(status, 0);
+            totalTasks += tasks;
+            totalSubtasks += subtasks;
+
+            Row row = sheet.createRow(rowIndex++);
+            setText(row, 0, status.getDisplayName());
+            setNumber(row, 1, tasks);
+            setNumber(row, 2, subtasks);
+            setNumber(row, 3, tasks + subtasks);
+        }
+
+        Row totalRow = sheet.createRow(rowIndex);
+        Cell label = totalRow.createCell(0);
+        label.setCellValue("Total");
+        label.setCellStyle(headerStyle);
+        setNumber(totalRow, 1, totalTasks);
+        setNumber(totalRow, 2, totalSubtasks);
+        setNumber(totalRow, 3, totalTasks + totalSubtasks);
+    }
+
+    private CellStyle createHeaderStyle(SXSSFWorkbook workbook) {
+        Font font = workbook.createFont();
+        font.setBold(true);
+
+        CellStyle style = workbook.createCellStyle();
+        style.setFont(font);
+        return style;
+    }
+
+    private void writeHeader(SXSSFSheet sheet, String[] headers, CellStyle style) {
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            Cell cell = header.createCell(i);
+            cell.setCellValue(headers[i]);
+            cell.setCellStyle(style);
+        }
+        sheet.createFreezePane(0, 1);
+    }
+
+    private void setText(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+
+    private void setNumber(Row row, int column, Number value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value.doubleValue());
+        }
+    }
+
+    private void setDate(Row row, int column, LocalDateTime value, CellStyle style) {
+        if (value != null) {
+            Cell cell = row.createCell(column);
+            cell.setCellValue(value);
+            cell.setCellStyle(style);
+        }
+    }
+}
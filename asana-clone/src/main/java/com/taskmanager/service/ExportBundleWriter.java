@@ -0,0 +1,209 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.model.ExportJob;
+import com.taskmanager.model.Project;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.Repositorios.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export de varios proyectos en un solo ZIP (ExportType.PROJECTS_BUNDLE)
+ *
+ * Cada proyecto lo genera un productor del pool "export-bundle-" en un
+ * archivo temporal con el formato pedido. El hilo del job agrega las
+ * entradas al ZIP en el orden de los proyectos y borra cada temporal en
+ * cuanto lo copia. Como mucho hay export.bundle.parallelism proyectos
+ * generándose o esperando su turno, así que el disco extra está acotado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExportBundleWriter {
+
+    private static final String PROJECT_IDS = "projectIds";
+
+    private final ProjectRepository projectRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${export.bundle.parallelism:2}")
+    private int parallelism;
+
+    private ExecutorService producers;
+
+    /**
+     * Proyecto ya generado en su archivo temporal
+     */
+    private record Part(String entryName, Path file, int records) {
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        producers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "export-bundle-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Export bundle producers started: parallelism={}", parallelism);
+    }
+
+    @PreDestroy
+    public void stop() {
+        producers.shutdownNow();
+    }
+
+    /**
+     * Los proyectos del bundle se guardan en ExportJob.filters: {"projectIds": [...]}
+     */
+    public String toFilters(List<Long> projectIds) {
+        try {
+            return objectMapper.writeValueAsString(Map.of(PROJECT_IDS, projectIds));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize bundle projects", e);
+        }
+    }
+
+    public List<Long> readProjectIds(ExportJob job) throws IOException {
+        List<Long> projectIds = new ArrayList<>();
+        if (job.getFilters() != null) {
+            objectMapper.readTree(job.getFilters()).path(PROJECT_IDS)
+                    .forEach(id -> projectIds.add(id.asLong()));
+        }
+
+        if (projectIds.isEmpty()) {
+            throw new IllegalArgumentException("Bundle export without projects");
+        }
+        return projectIds;
+    }
+
+    /**
+     * @return cantidad de registros exportados (suma de todos los proyectos)
+     */
+    public int write(List<Long> projectIds, ExportFormatWriter writer, Path target,
+                     ExportExecution execution) throws Exception {
+        Map<Long, String> entryNames = resolveEntryNames(projectIds, writer.getExtension());
+        Path workDir = Files.createTempDirectory(target.getParent(), ".bundle-" + execution.getJobId() + "-");
+        Deque<Future<Part>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        int totalRecords = 0;
+
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            // Excel ya es un ZIP: volver a comprimirlo solo gasta CPU
+            zip.setLevel(writer.getFormat() == ExportFormat.EXCEL
+                    ? Deflater.BEST_SPEED : Deflater.DEFAULT_COMPRESSION);
+
+            while (next < projectIds.size() && inFlight.size() < parallelism) {
+                inFlight.add(submit(projectIds.get(next++), entryNames, writer, workDir, execution));
+            }
+
+            while (!inFlight.isEmpty()) {
+                Part part = await(inFlight.poll());
+
+                // El siguiente proyecto se genera mientras se copia este
+                if (next < projectIds.size()) {
+                    inFlight.add(submit(projectIds.get(next++), entryNames, writer, workDir, execution));
+                }
+
+                execution.checkpoint();
+                zip.putNextEntry(new ZipEntry(part.entryName()));
+                Files.copy(part.file(), zip);
+                zip.closeEntry();
+                Files.delete(part.file());
+
+                totalRecords += part.records();
+            }
+
+            log.info("🗜️ Bundle export {}: {} projects, {} records",
+                    execution.getJobId(), projectIds.size(), totalRecords);
+            return totalRecords;
+
+        } catch (Exception e) {
+            // Detener los productores que sigan corriendo
+            execution.cancel();
+            throw e;
+
+        } finally {
+            for (Future<Part> pending : inFlight) {
+                try {
+                    pending.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | CancellationException ignored) {
+                    // El error que importa ya se propagó
+                }
+            }
+            deleteWorkDir(workDir);
+        }
+    }
+
+    private Future<Part> submit(Long projectId, Map<Long, String> entryNames, ExportFormatWriter writer,
+                                Path workDir, ExportExecution execution) {
+        String entryName = entryNames.get(projectId);
+        return producers.submit(() -> {
+            Path file = workDir.resolve(projectId + "." + writer.getExtension());
+            int records = writer.write(projectId, file, execution);
+            return new Part(entryName, file, records);
+        });
+    }
+
+    private Part await(Future<Part> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Nombre de cada entrada: nombre del proyecto + ID (los nombres se repiten)
+     */
+    private Map<Long, String> resolveEntryNames(List<Long> projectIds, String extension) {
+        Map<Long, Project> projects = projectRepository.findAllById(projectIds).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+
+        Map<Long, String> entryNames = new HashMap<>();
+        for (Long projectId : projectIds) {
+            Project project = projects.get(projectId);
+            String name = project != null
+                    ? project.getName().replaceAll("[^a-zA-Z0-9]", "_")
+                    : "proyecto";
+            entryNames.put(projectId, String.format("%s_%d.%s", name, projectId, extension));
+        }
+        return entryNames;
+    }
+
+    private void deleteWorkDir(Path workDir) {
+        try (Stream<Path> files = Files.list(workDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(workDir);
+        } catch (IOException e) {
+            log.warn("Could not delete bundle work directory {}: {}", workDir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ExportDTO;
+import com.taskmanager.exception.BadRequestException;
+import com.taskmanager.model.ExportJob;
+import com.taskmanager.model.enums.ExportStatus;
+import com.taskmanager.Repositorios.ExportJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Limpieza de exports y cuotas de disco (la ejecuta SchedulerConfig)
+ *
+ * 1. Exports vencidos: se borran sus filas y, si nadie más comparte el
+ *    archivo (ver ExportJobRepository.countFileReferences), el archivo.
+ * 2. Filas fallidas, canceladas o expiradas más viejas que la retención.
+ * 3. Cuota por usuario y cuota total: se liberan los exports completados
+ *    menos usados (LRU por última descarga o fecha de creación) y quedan
+ *    como EXPIRED hasta que el paso 2 borre la fila.
+ * 4. Archivos huérfanos del directorio (sin ningún job que los use).
+ *
+ * Todo en lotes de export.cleanup.batch-size: ninguna transacción ni
+ * listado carga la tabla completa.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportCleanupService {
+
+    // Un archivo sin job más viejo que esto no se está generando
+    private static final Duration ORPHAN_GRACE = Duration.ofDays(1);
+
+    private static final List<ExportStatus> FINISHED_WITHOUT_FILE =
+            List.of(ExportStatus.FAILED, ExportStatus.CANCELLED, ExportStatus.EXPIRED);
+
+    private final ExportJobRepository exportJobRepository;
+
+    @Value("${export.directory:uploads/exports}")
+    private String exportDirectory;
+
+    @Value("${export.expiration-days:7}")
+    private Integer expirationDays;
+
+    @Value("${export.cleanup.batch-size:200}")
+    private Integer batchSize;
+
+    // 0 = sin límite
+    @Value("${export.quota.total-bytes:0}")
+    private Long totalQuotaBytes;
+
+    @Value("${export.quota.per-user-bytes:0}")
+    private Long userQuotaBytes;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Acumulado de una pasada
+     */
+    private static class Tally {
+        int expiredJobs;
+        int evictedJobs;
+        int purgedRows;
+        int deletedFiles;
+        long reclaimedBytes;
+    }
+
+    public ExportDTO.CleanupReport cleanup() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Export cleanup is already running");
+        }
+
+        long startedAt = System.currentTimeMillis();
+        Tally tally = new Tally();
+        try {
+            deleteExpired(tally);
+            purgeFinishedRows(tally);
+            enforceUserQuota(tally);
+            enforceTotalQuota(tally);
+            deleteOrphanFiles(tally);
+        } finally {
+            running.set(false);
+        }
+
+        ExportDTO.CleanupReport report = ExportDTO.CleanupReport.builder()
+                .expiredJobs(tally.expiredJobs)
+                .evictedJobs(tally.evictedJobs)
+                .purgedRows(tally.purgedRows)
+                .deletedFiles(tally.deletedFiles)
+                .reclaimedBytes(tally.reclaimedBytes)
+                .storedBytes(exportJobRepository.getStoredBytes())
+                .durationMillis(System.currentTimeMillis() - startedAt)
+                .build();
+
+        log.info("🧹 Export cleanup: {} expired, {} evicted, {} rows purged, {} files deleted, "
+                        + "{} bytes reclaimed, {} bytes stored ({} ms)",
+                report.getExpiredJobs(), report.getEvictedJobs(), report.getPurgedRows(),
+                report.getDeletedFiles(), report.getReclaimedBytes(), report.getStoredBytes(),
+                report.getDurationMillis());
+        return report;
+    }
+
+    private void deleteExpired(Tally tally) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExportJob> batch;
+        do {
+            batch = exportJobRepository.findExpiredBatch(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            // Primero las filas: así el archivo deja de contar como referenciado
+            exportJobRepository.deleteAllByIdInBatch(batch.stream().map(ExportJob::getId).toList());
+            tally.expiredJobs += batch.size();
+
+            batch.stream()
+                    .map(ExportJob::getFilePath)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(filePath -> releaseFile(filePath, tally));
+        } while (batch.size() == batchSize);
+    }
+
+    private void purgeFinishedRows(Tally tally) {
+        LocalDateTime before = LocalDateTime.now().minusDays(expirationDays);
+        List<Long> ids;
+        do {
+            ids = exportJobRepository.findFinishedIdsCreatedBefore(
+                    FINISHED_WITHOUT_FILE, before, PageRequest.of(0, batchSize));
+            if (!ids.isEmpty()) {
+                exportJobRepository.deleteAllByIdInBatch(ids);
+                tally.purgedRows += ids.size();
+            }
+        } while (ids.size() == batchSize);
+    }
+
+    private void enforceUserQuota(Tally tally) {
+        if (userQuotaBytes <= 0) {
+            return;
+        }
+
+        for (ExportJobRepository.UserUsage usage : exportJobRepository.findUsersOverQuota(userQuotaBytes)) {
+            long excess = usage.getTotalBytes() - userQuotaBytes;
+            while (excess > 0) {
+                List<ExportJob> batch = exportJobRepository.findLeastRecentlyUsedByUser(
+                        usage.getUserId(), PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                for (ExportJob job : batch) {
+                    if (excess <= 0) {
+                        break;
+                    }
+                    if (evict(job, "Evicted: user export quota exceeded", tally) >= 0) {
+                        excess -= job.getFileSize() != null ? job.getFileSize() : 0;
+                    }
+                }
+            }
+            log.info("User {} export usage reduced below quota of {} bytes", usage.getUserId(), userQuotaBytes);
+        }
+    }
+
+    private void enforceTotalQuota(Tally tally) {
+        if (totalQuotaBytes <= 0) {
+            return;
+        }
+
+        // Cuenta bytes físicos: liberar una referencia compartida no libera disco.
+        // Se consulta una vez y luego se restan los bytes realmente liberados
+        long stored = exportJobRepository.getStoredBytes();
+        while (stored > totalQuotaBytes) {
+            List<ExportJob> batch = exportJobRepository.findLeastRecentlyUsed(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            for (ExportJob job : batch) {
+                if (stored <= totalQuotaBytes) {
+                    break;
+                }
+                long freed = evict(job, "Evicted: export storage quota exceeded", tally);
+                if (freed > 0) {
+                    stored -= freed;
+                }
+            }
+        }
+    }
+
+    /**
+     * Marca el job como EXPIRED y borra el archivo si era la última referencia
+     *
+     * @return bytes liberados en disco, o -1 si el job ya no se podía desalojar
+     */
+    private long evict(ExportJob job, String reason, Tally tally) {
+        if (exportJobRepository.markEvicted(job.getId(), LocalDateTime.now(), reason) == 0) {
+            return -1;
+        }
+
+        tally.evictedJobs++;
+        if (job.getFilePath() == null) {
+            return 0;
+        }
+        // Mismo criterio que getStoredBytes: el archivo deja de contar cuando
+        // ningún job completado lo referencia, y cuenta su file_size
+        return releaseFile(job.getFilePath(), tally) ? sizeOf(job) : 0;
+    }
+
+    private long sizeOf(ExportJob job) {
+        return job.getFileSize() != null ? job.getFileSize() : 0;
+    }
+
+    /**
+     * Borra el archivo si ningún job lo referencia
+     *
+     * @return true si ya no está referenciado (aunque no se haya podido borrar)
+     */
+    private boolean releaseFile(String filePath, Tally tally) {
+        if (exportJobRepository.countFileReferences(filePath) > 0) {
+            return false;
+        }
+
+        Path path = Paths.get(filePath);
+        try {
+            long size = Files.exists(path) ? Files.size(path) : 0;
+            if (Files.deleteIfExists(path)) {
+                tally.deletedFiles++;
+                tally.reclaimedBytes += size;
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}: {}", filePath, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Archivos que ningún job completado referencia (renders interrumpidos,
+     * directorios temporales de bundles, filas borradas a mano)
+     */
+    private void deleteOrphanFiles(Tally tally) {
+        Path directory = Paths.get(exportDirectory);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        FileTime graceLimit = FileTime.from(Instant.now().minus(ORPHAN_GRACE));
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                if (Files.getLastModifiedTime(entry).compareTo(graceLimit) > 0) {
+                    continue;
+                }
+
+                if (Files.isDirectory(entry)) {
+                    if (entry.getFileName().toString().startsWith(".bundle-")) {
+                        deleteDirectory(entry, tally);
+                    }
+                } else {
+                    releaseFile(entry.toString(), tally);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan export directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void deleteDirectory(Path directory, Tally tally) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    tally.deletedFiles++;
+                    tally.reclaimedBytes += size;
+                }
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,76 @@
+package com.taskmanager.service;
+
+import com.taskmanager.Repositorios.ExportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de descargas de exports en memoria
+ *
+ * Descargar no escribe en export_jobs: las descargas se acumulan aquí y
+ * SchedulerConfig las vuelca con un UPDATE por job (también al apagar).
+ *
+ * Cada UPDATE va en su propia transacción (TransactionTemplate, también
+ * sirve desde @PreDestroy donde no hay proxy). Si uno falla, sus
+ * descargas vuelven al contador y se reintentan en el próximo flush.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExportDownloadCounter {
+
+    private final ExportJobRepository exportJobRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public void record(Long jobId) {
+        pending.computeIfAbsent(jobId, id -> new LongAdder()).increment();
+    }
+
+    public void flush() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int flushed = 0;
+        int failed = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Long jobId : pending.keySet()) {
+            LongAdder adder = pending.remove(jobId);
+            long delta = adder != null ? adder.sumThenReset() : 0;
+            if (delta <= 0) {
+                continue;
+            }
+
+            try {
+                transaction.executeWithoutResult(status ->
+                        exportJobRepository.incrementDownloadCount(jobId, (int) delta, now));
+                flushed++;
+            } catch (RuntimeException e) {
+                pending.computeIfAbsent(jobId, id -> new LongAdder()).add(delta);
+                failed++;
+                log.warn("Could not flush {} downloads of export {}: {}", delta, jobId, e.getMessage());
+            }
+        }
+
+        if (flushed > 0 || failed > 0) {
+            log.debug("Flushed download counts for {} exports ({} retried later)", flushed, failed);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} export download counts could not be saved on shutdown", pending.size());
+        }
+    }
+}
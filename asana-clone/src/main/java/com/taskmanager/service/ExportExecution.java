@@ -0,0 +1,128 @@
+package com.taskmanager.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Ejecución de un export en un worker
+ *
+ * Los generadores llaman a checkpoint() entre filas: así una cancelación o
+ * un timeout detienen el export sin interrumpir el hilo a mitad de una
+ * consulta JDBC. Por cada tarea escrita llaman a rowWritten(), que además
+ * cuenta el progreso (varios hilos en un bundle).
+ *
+ * El apagado de la aplicación usa su propia señal (shutdown): el job no se
+ * da por cancelado y ExportService lo vuelve a encolar al arrancar.
+ */
+public class ExportExecution {
+
+    private final Long jobId;
+    private final Long userId;
+    private final long startedAt;
+    private final long deadline;
+
+    private volatile boolean cancelled = false;
+    private volatile boolean shuttingDown = false;
+
+    private final AtomicLong processedRows = new AtomicLong();
+    private volatile int reportEvery = 1;
+    private volatile LongConsumer progressListener;
+
+    public ExportExecution(Long jobId, Long userId, long timeoutMillis) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.startedAt = System.currentTimeMillis();
+        this.deadline = startedAt + timeoutMillis;
+    }
+
+    public void checkpoint() {
+        if (shuttingDown) {
+            throw new Stopped(StopReason.SHUTDOWN);
+        }
+        if (cancelled) {
+            throw new Stopped(StopReason.CANCELLED);
+        }
+        if (System.currentTimeMillis() > deadline) {
+            throw new Stopped(StopReason.TIMED_OUT);
+        }
+    }
+
+    /**
+     * Checkpoint + una fila más; avisa al listener cada reportEvery filas
+     */
+    public void rowWritten() {
+        checkpoint();
+        long rows = processedRows.incrementAndGet();
+
+        LongConsumer listener = progressListener;
+        if (listener != null && rows % reportEvery == 0) {
+            listener.accept(rows);
+        }
+    }
+
+    public void onProgress(int everyRows, LongConsumer listener) {
+        this.reportEvery = Math.max(1, everyRows);
+        this.progressListener = listener;
+    }
+
+    public long getProcessedRows() {
+        return processedRows.get();
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * La aplicación se está apagando: detener sin cambiar el estado del job
+     */
+    public void shutdown() {
+        shuttingDown = true;
+    }
+
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public enum StopReason {
+        CANCELLED,
+        TIMED_OUT,
+        SHUTDOWN
+    }
+
+    /**
+     * El export se detuvo por cancelación, timeout o apagado
+     */
+    public static class Stopped extends RuntimeException {
+        private final StopReason reason;
+
+        public Stopped(StopReason reason) {
+            super(switch (reason) {
+                case CANCELLED -> "Export cancelled";
+                case TIMED_OUT -> "Export timed out";
+                case SHUTDOWN -> "Export interrupted by shutdown";
+            });
+            this.reason = reason;
+        }
+
+        public StopReason getReason() {
+            return reason;
+        }
+
+        public boolean isTimedOut() {
+            return reason == StopReason.TIMED_OUT;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.enums.ExportFormat;
+
+import java.nio.file.Path;
+
+/**
+ * Generador de un formato de export que escribe directo al archivo destino
+ * (ExportRenderer elige la implementación según ExportJob.format)
+ *
+ * Cada llamada a write corre en su propia transacción de solo lectura, así
+ * varios proyectos de un bundle se generan en paralelo sin compartir conexión.
+ */
+public interface ExportFormatWriter {
+
+    ExportFormat getFormat();
+
+    String getExtension();
+
+    /**
+     * @return cantidad de registros exportados
+     */
+    int write(Long projectId, Path target, ExportExecution execution) throws Exception;
+}
@@ -0,0 +1,273 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ExportDTO;
+import com.taskmanager.exception.BadRequestException;
+import com.taskmanager.model.enums.ExportStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola de exports con workers propios
+ *
+ * - Pool fijo (export.workers), separado del executor de @Async
+ * - FIFO por usuario y turnos entre usuarios: un usuario con muchos
+ *   exports no deja esperando a los demás
+ * - Límite global de la cola y de exports activos por usuario: se reserva
+ *   el lugar al aceptar la solicitud (reserve) y enqueue lo ocupa después
+ *   del commit, así dos solicitudes simultáneas no pasan el límite
+ * - Cancelación y timeout cooperativos (ExportExecution.checkpoint)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobQueue {
+
+    private final ExportJobRunner exportJobRunner;
+
+    @Value("${export.workers:2}")
+    private int workers;
+
+    @Value("${export.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${export.max-active-per-user:3}")
+    private int maxActivePerUser;
+
+    @Value("${export.timeout-minutes:10}")
+    private long timeoutMinutes;
+
+    private ExecutorService executor;
+
+    // Protegidos por "this"
+    private final Map<Long, ArrayDeque<QueuedJob>> queuedByUser = new HashMap<>();
+    private final ArrayDeque<Long> userTurns = new ArrayDeque<>();
+    private int queuedCount = 0;
+
+    // Lugares reservados por solicitudes todavía sin commit
+    private final Map<Long, Integer> reservedByUser = new HashMap<>();
+    private int reservedCount = 0;
+
+    private final Map<Long, ExportExecution> running = new ConcurrentHashMap<>();
+
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+
+    public enum CancelResult {
+        DEQUEUED,   // Estaba en la cola: no llegará a ejecutarse
+        SIGNALLED,  // En ejecución: se detiene en el próximo checkpoint
+        NOT_FOUND
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "export-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Export queue started: workers={}, capacity={}, maxActivePerUser={}, timeout={}min",
+                workers, queueCapacity, maxActivePerUser, timeoutMinutes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        // No es una cancelación: la fila queda PROCESSING y ExportService la
+        // vuelve a encolar al reiniciar (recoverInterruptedJobs)
+        running.values().forEach(ExportExecution::shutdown);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reserva un lugar antes de crear el job (o rechaza la solicitud).
+     * Se ocupa con enqueue o se devuelve con release si no hubo commit.
+     */
+    public synchronized void reserve(Long userId) {
+        if (queuedCount + reservedCount >= queueCapacity) {
+            throw new BadRequestException("Export queue is full, please try again later");
+        }
+        if (activeCountForUser(userId) >= maxActivePerUser) {
+            throw new BadRequestException("You already have " + maxActivePerUser + " exports in progress");
+        }
+        reservedCount++;
+        reservedByUser.merge(userId, 1, Integer::sum);
+    }
+
+    public synchronized void release(Long userId) {
+        Integer count = reservedByUser.get(userId);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            reservedByUser.put(userId, count - 1);
+        } else {
+            reservedByUser.remove(userId);
+        }
+        reservedCount--;
+    }
+
+    /**
+     * Encola un job con lugar reservado (reserve)
+     */
+    public void enqueue(Long jobId, Long userId) {
+        synchronized (this) {
+            release(userId);
+
+            ArrayDeque<QueuedJob> userQueue = queuedByUser.get(userId);
+            if (userQueue == null) {
+                userQueue = new ArrayDeque<>();
+                queuedByUser.put(userId, userQueue);
+                userTurns.addLast(userId);
+            }
+            userQueue.addLast(new QueuedJob(jobId, userId, System.currentTimeMillis()));
+            queuedCount++;
+        }
+
+        // Un turno de worker por job encolado: toma el siguiente según la rotación
+        executor.execute(this::runNext);
+        log.debug("Export job {} queued for user {}", jobId, userId);
+    }
+
+    public CancelResult cancel(Long jobId) {
+        synchronized (this) {
+            for (Map.Entry<Long, ArrayDeque<QueuedJob>> entry : queuedByUser.entrySet()) {
+                if (entry.getValue().removeIf(job -> job.jobId.equals(jobId))) {
+                    queuedCount--;
+                    if (entry.getValue().isEmpty()) {
+                        queuedByUser.remove(entry.getKey());
+                        userTurns.remove(entry.getKey());
+                    }
+                    cancelledCount.incrementAndGet();
+                    return CancelResult.DEQUEUED;
+                }
+            }
+
+            if (signal(jobId)) {
+                return CancelResult.SIGNALLED;
+            }
+        }
+        return CancelResult.NOT_FOUND;
+    }
+
+    /**
+     * Pide detenerse a un job en ejecución (no toca la cola)
+     *
+     * @return false si el job no se está ejecutando
+     */
+    public synchronized boolean signal(Long jobId) {
+        ExportExecution execution = running.get(jobId);
+        if (execution == null) {
+            return false;
+        }
+        execution.cancel();
+        return true;
+    }
+
+    public synchronized ExportDTO.QueueStats getStats() {
+        long now = System.currentTimeMillis();
+        long oldestWait = queuedByUser.values().stream()
+                .map(ArrayDeque::peekFirst)
+                .mapToLong(job -> now - job.queuedAt)
+                .max()
+                .orElse(0L);
+
+        return ExportDTO.QueueStats.builder()
+                .workers(workers)
+                .capacity(queueCapacity)
+                .queued(queuedCount)
+                .running(running.size())
+                .queuedUsers(queuedByUser.size())
+                .oldestQueuedMillis(oldestWait)
+                .completed(completedCount.get())
+                .failed(failedCount.get())
+                .cancelled(cancelledCount.get())
+                .build();
+    }
+
+    private void runNext() {
+        ExportExecution execution;
+        synchronized (this) {
+            QueuedJob next = pollNextTurn();
+            if (next == null) {
+                return;
+            }
+            // Se registra antes de soltar el lock: cancel() siempre lo encuentra
+            execution = new ExportExecution(next.jobId, next.userId,
+                    TimeUnit.MINUTES.toMillis(timeoutMinutes));
+            running.put(next.jobId, execution);
+        }
+
+        try {
+            ExportStatus result = exportJobRunner.run(execution);
+            if (result == ExportStatus.COMPLETED) {
+                completedCount.incrementAndGet();
+            } else if (result == ExportStatus.FAILED) {
+                failedCount.incrementAndGet();
+            } else if (result == ExportStatus.CANCELLED) {
+                cancelledCount.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failedCount.incrementAndGet();
+            log.error("Export worker error for job {}: {}", execution.getJobId(), e.getMessage(), e);
+        } finally {
+            running.remove(execution.getJobId());
+        }
+    }
+
+    private QueuedJob pollNextTurn() {
+        Long userId = userTurns.pollFirst();
+        if (userId == null) {
+            return null;
+        }
+
+        ArrayDeque<QueuedJob> userQueue = queuedByUser.get(userId);
+        QueuedJob job = userQueue.pollFirst();
+        queuedCount--;
+
+        if (userQueue.isEmpty()) {
+            queuedByUser.remove(userId);
+        } else {
+            userTurns.addLast(userId);
+        }
+        return job;
+    }
+
+    private int activeCountForUser(Long userId) {
+        ArrayDeque<QueuedJob> userQueue = queuedByUser.get(userId);
+        int queued = userQueue != null ? userQueue.size() : 0;
+        int reserved = reservedByUser.getOrDefault(userId, 0);
+        long runningForUser = running.values().stream()
+                .filter(execution -> execution.getUserId().equals(userId))
+                .count();
+        return queued + reserved + (int) runningForUser;
+    }
+
+    private static final class QueuedJob {
+        private final Long jobId;
+        private final Long userId;
+        private final long queuedAt;
+
+        private QueuedJob(Long jobId, Long userId, long queuedAt) {
+            this.jobId = jobId;
+            this.userId = userId;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
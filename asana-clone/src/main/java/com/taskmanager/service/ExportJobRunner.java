@@ -0,0 +1,129 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.ExportJob;
+import com.taskmanager.model.enums.ExportStatus;
+import com.taskmanager.Repositorios.ExportJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Ejecuta un export en el hilo del worker
+ *
+ * Fuera de la petición HTTP: cada cambio de estado es su propia
+ * transacción y la generación corre en la transacción de solo lectura de
+ * cada ExportFormatWriter. La fila solo se guarda en los cambios de estado;
+ * el progreso intermedio vive en ExportProgressRegistry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobRunner {
+
+    private final ExportJobRepository exportJobRepository;
+    private final ExportRenderer exportRenderer;
+    private final ExportProgressRegistry progressRegistry;
+
+    @Value("${export.expiration-days:7}")
+    private Integer expirationDays;
+
+    /**
+     * @return estado final del job (null si ya no estaba pendiente)
+     */
+    public ExportStatus run(ExportExecution execution) {
+        Long jobId = execution.getJobId();
+        ExportJob job = exportJobRepository.findById(jobId).orElse(null);
+
+        // Cancelado o eliminado mientras esperaba en la cola
+        if (job == null || job.getStatus() != ExportStatus.PENDING) {
+            log.info("Export job {} skipped (no longer pending)", jobId);
+            return null;
+        }
+
+        log.info("⚙️ Processing export job {}", jobId);
+
+        job.setStatus(ExportStatus.PROCESSING);
+        job = exportJobRepository.save(job);
+        progressRegistry.started(execution, exportRenderer.estimateRecords(job));
+
+        ExportRenderer.Result result = null;
+        try {
+            execution.checkpoint();
+            result = exportRenderer.render(job, execution);
+            execution.checkpoint();
+
+            job.setStatus(ExportStatus.COMPLETED);
+            job.setFileName(result.getFileName());
+            job.setFilePath(result.getFilePath().toString());
+            job.setFileSize(result.getFileSize());
+            job.setTotalRecords(result.getTotalRecords());
+            job.setProcessedRecords(result.getTotalRecords());
+            job.setDownloadUrl("/api/exports/" + job.getId() + "/download");
+            job.setExpiresAt(LocalDateTime.now().plusDays(expirationDays));
+            job.setCompletedAt(LocalDateTime.now());
+            job.setProgress(100);
+            exportJobRepository.save(job);
+            progressRegistry.finished(execution, ExportStatus.COMPLETED);
+
+            log.info("✅ Export job {} completed - File: {}", jobId, result.getFileName());
+            return ExportStatus.COMPLETED;
+
+        } catch (ExportExecution.Stopped e) {
+            deletePartialFile(result);
+
+            if (e.getReason() == ExportExecution.StopReason.SHUTDOWN) {
+                // La fila sigue PROCESSING: se vuelve a generar al reiniciar
+                log.info("⏸️ Export job {} interrupted by shutdown, will resume on restart", jobId);
+                return null;
+            }
+
+            if (e.isTimedOut()) {
+                log.warn("⏱️ Export job {} timed out", jobId);
+                job.setStatus(ExportStatus.FAILED);
+                job.setErrorMessage("Export timed out");
+            } else {
+                log.info("🛑 Export job {} cancelled", jobId);
+                job.setStatus(ExportStatus.CANCELLED);
+                job.setErrorMessage("Cancelled by user");
+            }
+            job.setCompletedAt(LocalDateTime.now());
+            exportJobRepository.save(job);
+            progressRegistry.finished(execution, job.getStatus());
+            return job.getStatus();
+
+        } catch (Exception e) {
+            deletePartialFile(result);
+
+            // shutdownNow interrumpe el hilo: el error puede venir de JDBC o de IO
+            if (execution.isShuttingDown()) {
+                log.info("⏸️ Export job {} interrupted by shutdown, will resume on restart", jobId);
+                return null;
+            }
+
+            log.error("❌ Export job {} failed: {}", jobId, e.getMessage(), e);
+
+            job.setStatus(ExportStatus.FAILED);
+            job.setErrorMessage(e.getMessage());
+            job.setCompletedAt(LocalDateTime.now());
+            exportJobRepository.save(job);
+            progressRegistry.finished(execution, ExportStatus.FAILED);
+            return ExportStatus.FAILED;
+        }
+    }
+
+    private void deletePartialFile(ExportRenderer.Result result) {
+        if (result == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(result.getFilePath());
+        } catch (IOException e) {
+            log.warn("Could not delete partial export file {}: {}", result.getFilePath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.taskmanager.service;
+
+import com.taskmanager.dto.ExportDTO;
+import com.taskmanager.model.enums.ExportStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Progreso en vivo de los exports en ejecución (solo en memoria)
+ *
+ * Los generadores cuentan filas en ExportExecution y cada
+ * export.progress.every-rows filas se actualiza este registro. Los cambios
+ * se envían por SSE a las pestañas abiertas del dueño del export. La fila
+ * de export_jobs solo se escribe en los cambios de estado (ExportJobRunner).
+ *
+ * Los envíos SSE salen de un hilo propio: un cliente lento no frena a los
+ * workers.
+ */
+@Component
+@Slf4j
+public class ExportProgressRegistry {
+
+    @Value("${export.progress.every-rows:500}")
+    private int everyRows;
+
+    @Value("${export.progress.sse-timeout-minutes:30}")
+    private long sseTimeoutMinutes;
+
+    private final Map<Long, ExportDTO.Progress> active = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "export-progress-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        emittersByUser.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * El job pasó a PROCESSING; totalRecords es una estimación (puede ser null)
+     */
+    public void started(ExportExecution execution, Long totalRecords) {
+        Long jobId = execution.getJobId();
+        Long userId = execution.getUserId();
+
+        ExportDTO.Progress progress = ExportDTO.Progress.builder()
+                .jobId(jobId)
+                .userId(userId)
+                .status(ExportStatus.PROCESSING)
+                .processedRecords(0L)
+                .totalRecords(totalRecords)
+                .progress(0)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        active.put(jobId, progress);
+        publish(userId, progress);
+
+        execution.onProgress(everyRows, rows -> update(jobId, userId, rows));
+    }
+
+    public void finished(ExportExecution execution, ExportStatus status) {
+        ExportDTO.Progress last = active.remove(execution.getJobId());
+        long processed = execution.getProcessedRows();
+
+        ExportDTO.Progress progress = ExportDTO.Progress.builder()
+                .jobId(execution.getJobId())
+                .userId(execution.getUserId())
+                .status(status)
+                .processedRecords(processed)
+                .totalRecords(last != null ? last.getTotalRecords() : null)
+                .progress(status == ExportStatus.COMPLETED ? 100 : percent(processed, last))
+                .updatedAt(LocalDateTime.now())
+                .build();
+        publish(execution.getUserId(), progress);
+    }
+
+    public Optional<ExportDTO.Progress> get(Long jobId) {
+        return Optional.ofNullable(active.get(jobId));
+    }
+
+    /**
+     * Stream SSE del usuario: primero el estado actual de sus exports en
+     * ejecución, luego cada actualización
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(sseTimeoutMinutes));
+        emittersByUser.compute(userId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters != null ? emitters : new CopyOnWriteArraySet<>();
+            set.add(emitter);
+            return set;
+        });
+
+        Runnable remove = () -> removeEmitter(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        List<ExportDTO.Progress> snapshot = active.values().stream()
+                .filter(progress -> userId.equals(progress.getUserId()))
+                .toList();
+        sender.execute(() -> snapshot.forEach(progress -> send(userId, emitter, progress)));
+        return emitter;
+    }
+
+    private void update(Long jobId, Long userId, long rows) {
+        ExportDTO.Progress current = active.get(jobId);
+        if (current == null) {
+            return;
+        }
+
+        ExportDTO.Progress progress = ExportDTO.Progress.builder()
+                .jobId(jobId)
+                .userId(userId)
+                .status(ExportStatus.PROCESSING)
+                .processedRecords(rows)
+                .totalRecords(current.getTotalRecords())
+                .progress(percent(rows, current))
+                .updatedAt(LocalDateTime.now())
+                .build();
+
+        // Un job que terminó entre medio no vuelve a aparecer como activo
+        if (active.replace(jobId, current, progress)) {
+            publish(userId, progress);
+        }
+    }
+
+    // Hasta que el job se marca COMPLETED el porcentaje no llega a 100
+    private int percent(long rows, ExportDTO.Progress current) {
+        if (current == null || current.getTotalRecords() == null || current.getTotalRecords() <= 0) {
+            return 0;
+        }
+        return (int) Math.min(99, rows * 100 / current.getTotalRecords());
+    }
+
+    private void publish(Long userId, ExportDTO.Progress progress) {
+        Set<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> emitters.forEach(emitter -> send(userId, emitter, progress)));
+    }
+
+    private void send(Long userId, SseEmitter emitter, ExportDTO.Progress progress) {
+        try {
+            emitter.send(SseEmitter.event().name("progress").data(progress));
+        } catch (IOException | IllegalStateException e) {
+            // Pestaña cerrada: el contenedor completa el emitter
+            log.debug("Export progress stream closed for user {}: {}", userId, e.getMessage());
+            removeEmitter(userId, emitter);
+        }
+    }
+
+    private void removeEmitter(Long userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
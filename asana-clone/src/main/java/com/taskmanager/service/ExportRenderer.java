@@ -0,0 +1,122 @@
+package com.taskmanager.service;
+
+import com.taskmanager.exception.*;
+import com.taskmanager.model.*;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.model.enums.ExportType;
+import com.taskmanager.Repositorios.*;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Genera el archivo de un export (lo ejecuta un worker de ExportJobQueue)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportRenderer {
+
+    private final ProjectRepository projectRepository;
+    private final List<ExportFormatWriter> formatWriters;
+    private final ExportBundleWriter bundleWriter;
+    private final TaskRepository taskRepository;
+
+    @Value("${export.directory:uploads/exports}")
+    private String exportDirectory;
+
+    /**
+     * Archivo generado
+     */
+    @Getter
+    @Builder
+    public static class Result {
+        private final String fileName;
+        private final Path filePath;
+        private final long fileSize;
+        private final int totalRecords;
+    }
+
+    /**
+     * Escribe el export directo en export.directory con el generador del
+     * formato pedido (PDF si no se indica formato). Los bundles van en un ZIP
+     * con un archivo de ese formato por proyecto.
+     *
+     * Sin transacción propia: cada generador abre la suya.
+     */
+    public Result render(ExportJob job, ExportExecution execution) throws Exception {
+        ExportFormat format = job.getFormat() != null ? job.getFormat() : ExportFormat.PDF;
+        ExportFormatWriter writer = formatWriters.stream()
+                .filter(candidate -> candidate.getFormat() == format)
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported export format: " + format));
+
+        Path directory = Paths.get(exportDirectory);
+        Files.createDirectories(directory);
+
+        boolean bundle = job.getType() == ExportType.PROJECTS_BUNDLE;
+        String fileName = generateFileName(job, bundle ? "zip" : writer.getExtension());
+        Path filePath = directory.resolve(fileName);
+
+        try {
+            int totalRecords = bundle
+                    ? bundleWriter.write(bundleWriter.readProjectIds(job), writer, filePath, execution)
+                    : writer.write(job.getReferenceId(), filePath, execution);
+
+            log.info("💾 File saved: {}", filePath.toAbsolutePath());
+
+            return Result.builder()
+                    .fileName(fileName)
+                    .filePath(filePath)
+                    .fileSize(Files.size(filePath))
+                    .totalRecords(totalRecords)
+                    .build();
+
+        } catch (Exception e) {
+            // No dejar archivos a medias en el directorio de exports
+            Files.deleteIfExists(filePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Tareas a exportar (total estimado para el progreso en vivo)
+     */
+    public Long estimateRecords(ExportJob job) {
+        try {
+            List<Long> projectIds = job.getType() == ExportType.PROJECTS_BUNDLE
+                    ? bundleWriter.readProjectIds(job)
+                    : List.of(job.getReferenceId());
+            return projectIds.stream().mapToLong(taskRepository::countByProjectId).sum();
+        } catch (Exception e) {
+            // Sin estimación el progreso solo muestra filas procesadas
+            log.debug("Could not estimate records for export {}: {}", job.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String generateFileName(ExportJob job, String extension) {
+        String timestamp = LocalDateTime.now().format(
+                DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
+        );
+
+        // 🔥 Nombre más descriptivo
+        Project project = job.getReferenceId() != null
+                ? projectRepository.findById(job.getReferenceId()).orElse(null)
+                : null;
+        String projectName = project != null ?
+                project.getName().replaceAll("[^a-zA-Z0-9]", "_") :
+                job.getType() == ExportType.PROJECTS_BUNDLE ? "proyectos" : "proyecto";
+
+        // El ID del job evita choques entre workers en el mismo segundo
+        return String.format("%s_%s_%d.%s", projectName, timestamp, job.getId(), extension);
+    }
+}
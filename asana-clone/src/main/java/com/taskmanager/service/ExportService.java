@@ -1,36 +1,37 @@
 package com.taskmanager.service;
 
-import com.itextpdf.kernel.colors.ColorConstants;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
 import com.taskmanager.dto.*;
 import com.taskmanager.exception.*;
 import com.taskmanager.mapper.ExportJobMapper;
 import com.taskmanager.model.*;
 import com.taskmanager.model.enums.*;
 import com.taskmanager.Repositorios.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
- * ✅ SERVICIO CON PDF REAL usando iText7
+ * Solicitudes, consulta y descarga de exports.
+ * La generación la hacen los workers de ExportJobQueue.
  */
 @Service
 @RequiredArgsConstructor
@@ -39,16 +40,37 @@ public class ExportService {
 
     private final ExportJobRepository exportJobRepository;
     private final UserRepository userRepository;
-    private final ProjectRepository projectRepository;
-    private final TaskRepository taskRepository;
     private final ExportJobMapper exportJobMapper;
-
-    @Value("${export.directory:uploads/exports}")
-    private String exportDirectory;
+    private final ExportJobQueue exportJobQueue;
+    private final ExportDownloadCounter downloadCounter;
+    private final TaskRepository taskRepository;
+    private final ProjectRepository projectRepository;
+    private final ExportBundleWriter bundleWriter;
+    private final ExportProgressRegistry progressRegistry;
 
     @Value("${export.expiration-days:7}")
     private Integer expirationDays;
 
+    @Value("${export.bundle.max-projects:50}")
+    private Integer maxBundleProjects;
+
+    /**
+     * Archivo listo para descargar (sin leerlo en memoria)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Download {
+        private final Path path;
+        private final String fileName;
+        private final long size;
+        private final long lastModified;
+
+        // ETag fuerte: cambia si el archivo se regenera
+        public String getETag() {
+            return "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + "\"";
+        }
+    }
+
     @Transactional
     public ExportDTO.Response requestExport(Long userId, ExportDTO.CreateRequest request) {
         log.info("📦 User {} requesting export for project {}", userId, request.getReferenceId());
@@ -59,243 +81,150 @@ public class ExportService {
         ExportJob job = exportJobMapper.toEntity(request);
         job.setRequestedBy(user);
         job.setStatus(ExportStatus.PENDING);
-        job = exportJobRepository.save(job);
-
-        processExportAsync(job.getId());
 
-        return exportJobMapper.toResponse(job);
-    }
+        if (job.getType() == ExportType.PROJECTS_BUNDLE) {
+            job.setReferenceId(null);
+            job.setFilters(bundleWriter.toFilters(resolveBundleProjects(userId, request.getProjectIds())));
+        } else if (job.getReferenceId() != null
+                && !projectRepository.existsUserAccess(job.getReferenceId(), userId)) {
+            // El export incluye emails de miembros y todos los comentarios
+            throw new AccessDeniedException("No tienes acceso al proyecto " + job.getReferenceId());
+        }
+        job.setFingerprint(computeFingerprint(job));
 
-    @Async
-    @Transactional
-    public void processExportAsync(Long jobId) {
-        log.info("⚙️ Processing export job {}", jobId);
+        ExportJob source = findReusableExport(job.getFingerprint());
+        if (source != null) {
+            shareFile(job, source);
+            job = exportJobRepository.save(job);
+            job.setDownloadUrl("/api/exports/" + job.getId() + "/download");
 
-        ExportJob job = exportJobRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("Export job not found"));
+            log.info("♻️ Export {} reuses file of export {} (data unchanged)", job.getId(), source.getId());
+            return exportJobMapper.toResponse(job);
+        }
 
+        // Solo los jobs que se generan ocupan lugar en la cola
+        exportJobQueue.reserve(userId);
         try {
-            job.setStatus(ExportStatus.PROCESSING);
-            job.setProgress(10);
-            exportJobRepository.save(job);
-
-            // 🔥 Generar PDF REAL
-            byte[] pdfData = generateRealPDF(job);
-
-            job.setProgress(80);
-            exportJobRepository.save(job);
+            job = exportJobRepository.save(job);
+        } catch (RuntimeException e) {
+            exportJobQueue.release(userId);
+            throw e;
+        }
 
-            String fileName = generateFileName(job);
-            Path filePath = saveFile(fileName, pdfData);
+        // El worker solo debe ver el job después del commit
+        enqueueAfterCommit(job.getId(), userId);
 
-            job.setStatus(ExportStatus.COMPLETED);
-            job.setFileName(fileName);
-            job.setFilePath(filePath.toString());
-            job.setFileSize((long) pdfData.length);
-            job.setDownloadUrl("/api/exports/" + job.getId() + "/download");
-            job.setExpiresAt(LocalDateTime.now().plusDays(expirationDays));
-            job.setCompletedAt(LocalDateTime.now());
-            job.setProgress(100);
-            exportJobRepository.save(job);
-
-            log.info("✅ Export job {} completed - File: {}", jobId, fileName);
-
-        } catch (Exception e) {
-            log.error("❌ Export job {} failed: {}", jobId, e.getMessage(), e);
-            job.setStatus(ExportStatus.FAILED);
-            job.setErrorMessage(e.getMessage());
-            exportJobRepository.save(job);
-        }
+        return exportJobMapper.toResponse(job);
     }
 
     /**
-     * 🔥 GENERA UN PDF REAL usando iText7
+     * Cancela un export pendiente o en proceso
      */
-    private byte[] generateRealPDF(ExportJob job) throws Exception {
-        log.info("📄 Generating REAL PDF for project {}", job.getReferenceId());
-
-        // Obtener datos
-        Project project = projectRepository.findByIdForExport(job.getReferenceId())
-                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
-
-        List<Task> tasks = taskRepository.findByProjectIdForExport(job.getReferenceId());
-
-        // Crear PDF en memoria
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdfDoc = new PdfDocument(writer);
-        Document document = new Document(pdfDoc);
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-
-        // ==================== HEADER ====================
-        Paragraph title = new Paragraph("REPORTE DE PROYECTO")
-                .setFontSize(20)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(5);
-        document.add(title);
-
-        Paragraph subtitle = new Paragraph("Fecha: " + LocalDateTime.now().format(formatter))
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(20);
-        document.add(subtitle);
-
-        // ==================== INFORMACIÓN DEL PROYECTO ====================
-        document.add(new Paragraph("INFORMACIÓN DEL PROYECTO")
-                .setFontSize(14)
-                .setBold()
-                .setMarginTop(10)
-                .setMarginBottom(10));
-
-        // Tabla de información del proyecto
-        Table infoTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}))
-                .useAllAvailableWidth();
-
-        addInfoRow(infoTable, "Nombre", project.getName());
-        addInfoRow(infoTable, "ID", project.getId().toString());
-        addInfoRow(infoTable, "Estado", project.getStatus().getDisplayName());
-        addInfoRow(infoTable, "Descripción", project.getDescription() != null ? project.getDescription() : "N/A");
-        addInfoRow(infoTable, "Creador", project.getCreatedBy().getFullName());
-        addInfoRow(infoTable, "Miembros", String.valueOf(project.getMembers().size()));
-        addInfoRow(infoTable, "Total de Tareas", String.valueOf(tasks.size()));
-
-        document.add(infoTable);
-
-        // ==================== ESTADÍSTICAS ====================
-        document.add(new Paragraph("ESTADÍSTICAS")
-                .setFontSize(14)
-                .setBold()
-                .setMarginTop(20)
-                .setMarginBottom(10));
-
-        Map<Task.TaskStatus, Long> statusCount = tasks.stream()
-                .collect(Collectors.groupingBy(Task::getStatus, Collectors.counting()));
-
-        Table statsTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
-                .useAllAvailableWidth();
-
-        for (Task.TaskStatus status : Task.TaskStatus.values()) {
-            long count = statusCount.getOrDefault(status, 0L);
-            addInfoRow(statsTable, status.getDisplayName(), count + " tareas");
-        }
-
-        document.add(statsTable);
-
-        // ==================== LISTADO DE TAREAS ====================
-        document.add(new Paragraph("LISTADO DE TAREAS")
-                .setFontSize(14)
-                .setBold()
-                .setMarginTop(20)
-                .setMarginBottom(10));
-
-        List<Task> mainTasks = tasks.stream()
-                .filter(t -> t.getParentTask() == null)
-                .collect(Collectors.toList());
+    @Transactional
+    public ExportDTO.Response cancelExport(Long jobId, Long userId) {
+        ExportJob job = findOwnedJob(jobId, userId);
 
-        Map<Long, List<Task>> subtaskMap = tasks.stream()
-                .filter(t -> t.getParentTask() != null)
-                .collect(Collectors.groupingBy(t -> t.getParentTask().getId()));
+        if (job.getStatus() != ExportStatus.PENDING && job.getStatus() != ExportStatus.PROCESSING) {
+            throw new BadRequestException("Only pending or processing exports can be cancelled");
+        }
 
-        int counter = 0;
-        for (Task task : mainTasks) {
-            counter++;
+        // En ejecución: el worker lo marca como cancelado en el próximo checkpoint
+        if (exportJobQueue.signal(jobId)) {
+            log.info("🛑 Cancel export {} by user {}: SIGNALLED", jobId, userId);
+            return exportJobMapper.toResponse(job);
+        }
 
-            // Título de la tarea
-            Paragraph taskTitle = new Paragraph("[" + counter + "] " + task.getTitle())
-                    .setFontSize(12)
-                    .setBold()
-                    .setMarginTop(10);
-            document.add(taskTitle);
+        // UPDATE condicional: si el worker terminó justo antes, no se pisa su estado
+        if (exportJobRepository.markCancelled(jobId, LocalDateTime.now(), "Cancelled by user") == 0) {
+            throw new BadRequestException("Export already finished and can no longer be cancelled");
+        }
 
-            // Detalles de la tarea
-            Table taskTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}))
-                    .useAllAvailableWidth()
-                    .setMarginLeft(20);
+        // Se saca de la cola recién con el CANCELLED confirmado
+        dequeueAfterCommit(jobId, userId);
 
-            addInfoRow(taskTable, "Estado", task.getStatus().getDisplayName());
-            addInfoRow(taskTable, "Prioridad", task.getPriority().getDisplayName());
+        return exportJobMapper.toResponse(findOwnedJob(jobId, userId));
+    }
 
-            String assignees = task.getAssignees().stream()
-                    .map(User::getFullName)
-                    .collect(Collectors.joining(", "));
-            addInfoRow(taskTable, "Asignados", assignees.isEmpty() ? "Sin asignar" : assignees);
+    /**
+     * Al arrancar, los jobs que quedaron en cola o a medias vuelven a la cola
+     * en orden de creación (la cola vive en memoria). Respetan los mismos
+     * límites que una solicitud nueva: los que no entran quedan FAILED.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recoverInterruptedJobs() {
+        List<ExportJob> activeJobs = exportJobRepository.findActiveExports();
+        if (activeJobs.isEmpty()) {
+            return;
+        }
 
-            if (task.getDueDate() != null) {
-                addInfoRow(taskTable, "Fecha Límite", task.getDueDate().format(formatter));
+        int requeued = 0;
+        for (ExportJob job : activeJobs) {
+            Long userId = job.getRequestedBy().getId();
+            try {
+                exportJobQueue.reserve(userId);
+            } catch (BadRequestException e) {
+                job.setStatus(ExportStatus.FAILED);
+                job.setErrorMessage("Not resumed after restart: " + e.getMessage());
+                job.setCompletedAt(LocalDateTime.now());
+                continue;
             }
 
-            document.add(taskTable);
-
-            // Subtareas
-            List<Task> subtasks = subtaskMap.getOrDefault(task.getId(), Collections.emptyList());
-            if (!subtasks.isEmpty()) {
-                Paragraph subtaskHeader = new Paragraph("Subtareas (" + subtasks.size() + ")")
-                        .setFontSize(10)
-                        .setItalic()
-                        .setMarginLeft(20)
-                        .setMarginTop(5);
-                document.add(subtaskHeader);
-
-                for (Task subtask : subtasks) {
-                    Paragraph subtaskItem = new Paragraph("• " + subtask.getTitle() + " (" + subtask.getStatus().getDisplayName() + ")")
-                            .setFontSize(9)
-                            .setMarginLeft(30);
-                    document.add(subtaskItem);
-                }
+            if (job.getStatus() == ExportStatus.PROCESSING) {
+                job.setStatus(ExportStatus.PENDING);
+                job.setProgress(0);
             }
+            enqueueAfterCommit(job.getId(), userId);
+            requeued++;
         }
 
-        // ==================== FOOTER ====================
-        document.add(new Paragraph("\nFIN DEL REPORTE")
-                .setFontSize(10)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(30));
-
-        document.close();
-
-        job.setTotalRecords(tasks.size());
-
-        return baos.toByteArray();
+        log.info("🔁 Re-queued {} of {} interrupted export jobs", requeued, activeJobs.size());
     }
 
-    /**
-     * Helper para agregar filas a tablas de información
-     */
-    private void addInfoRow(Table table, String label, String value) {
-        table.addCell(new Cell().add(new Paragraph(label).setBold()).setBackgroundColor(ColorConstants.LIGHT_GRAY));
-        table.addCell(new Cell().add(new Paragraph(value)));
+    @Transactional(readOnly = true)
+    public ExportDTO.QueueStats getQueueStats() {
+        return exportJobQueue.getStats();
     }
 
     @Transactional(readOnly = true)
     public List<ExportDTO.Response> getUserExports(Long userId) {
         return exportJobRepository.findByRequestedByIdOrderByCreatedAtDesc(userId)
                 .stream()
-                .map(exportJobMapper::toResponse)
+                .map(this::toResponseWithProgress)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public ExportDTO.Response getExportById(Long jobId, Long userId) {
-        ExportJob job = exportJobRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("Export not found"));
-
-        if (!job.getRequestedBy().getId().equals(userId)) {
-            throw new BadRequestException("Export does not belong to user");
-        }
-
-        return exportJobMapper.toResponse(job);
+        return toResponseWithProgress(findOwnedJob(jobId, userId));
     }
 
-    @Transactional
-    public byte[] downloadExport(Long jobId, Long userId) throws IOException {
-        ExportJob job = exportJobRepository.findById(jobId)
-                .orElseThrow(() -> new ResourceNotFoundException("Export not found"));
+    /**
+     * Stream SSE con el progreso de los exports del usuario
+     */
+    public SseEmitter subscribeProgress(Long userId) {
+        return progressRegistry.subscribe(userId);
+    }
 
-        if (!job.getRequestedBy().getId().equals(userId)) {
-            throw new BadRequestException("Export does not belong to user");
+    // Los jobs en proceso toman el progreso en vivo (la fila no se actualiza)
+    private ExportDTO.Response toResponseWithProgress(ExportJob job) {
+        ExportDTO.Response response = exportJobMapper.toResponse(job);
+        if (job.getStatus() == ExportStatus.PROCESSING) {
+            progressRegistry.get(job.getId()).ifPresent(progress -> {
+                response.setProgress(progress.getProgress());
+                response.setProcessedRecords(progress.getProcessedRecords().intValue());
+            });
         }
+        return response;
+    }
+
+    /**
+     * Valida el export y devuelve su archivo. El contenido lo transmite el
+     * controlador como Resource (completo o por rangos).
+     */
+    @Transactional(readOnly = true)
+    public Download prepareDownload(Long jobId, Long userId) throws IOException {
+        ExportJob job = findOwnedJob(jobId, userId);
 
         if (job.getStatus() != ExportStatus.COMPLETED) {
             throw new BadRequestException("Export is not completed");
@@ -305,35 +234,154 @@ public class ExportService {
             throw new BadRequestException("Export has expired");
         }
 
-        job.setDownloadCount(job.getDownloadCount() + 1);
-        exportJobRepository.save(job);
+        Path path = Paths.get(job.getFilePath());
+        if (!Files.isReadable(path)) {
+            throw new ResourceNotFoundException("Export file not found");
+        }
 
-        return Files.readAllBytes(Paths.get(job.getFilePath()));
+        return new Download(path, job.getFileName(), Files.size(path),
+                Files.getLastModifiedTime(path).toMillis());
     }
 
-    private String generateFileName(ExportJob job) {
-        String timestamp = LocalDateTime.now().format(
-                DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
-        );
+    /**
+     * Cuenta una descarga (se guarda en lote, ver ExportDownloadCounter)
+     */
+    public void recordDownload(Long jobId) {
+        downloadCounter.record(jobId);
+    }
 
-        // 🔥 Nombre más descriptivo
-        Project project = projectRepository.findById(job.getReferenceId()).orElse(null);
-        String projectName = project != null ?
-                project.getName().replaceAll("[^a-zA-Z0-9]", "_") :
-                "proyecto";
+    /**
+     * Proyectos de un bundle: los pedidos (deben ser del usuario) o todos los suyos
+     */
+    private List<Long> resolveBundleProjects(Long userId, List<Long> requested) {
+        List<Long> projectIds;
+        if (requested == null || requested.isEmpty()) {
+            projectIds = projectRepository.findAccessibleProjectIds(userId);
+        } else {
+            projectIds = requested.stream().distinct().collect(Collectors.toList());
+            for (Long projectId : projectIds) {
+                if (!projectRepository.existsUserAccess(projectId, userId)) {
+                    throw new AccessDeniedException("No tienes acceso al proyecto " + projectId);
+                }
+            }
+        }
 
-        return String.format("%s_%s.pdf", projectName, timestamp);
+        if (projectIds.isEmpty()) {
+            throw new BadRequestException("No projects to export");
+        }
+        if (projectIds.size() > maxBundleProjects) {
+            throw new BadRequestException("A bundle can include at most " + maxBundleProjects + " projects");
+        }
+        return projectIds;
     }
 
-    private Path saveFile(String fileName, byte[] data) throws IOException {
-        Path directory = Paths.get(exportDirectory);
-        Files.createDirectories(directory);
+    /**
+     * SHA-256 de (referencia, tipo, formato, versión de los datos del proyecto).
+     * Null si el proyecto no existe: ese job se genera y falla como siempre.
+     */
+    private String computeFingerprint(ExportJob job) {
+        if (job.getReferenceId() == null) {
+            return null;
+        }
+
+        String dataVersion = taskRepository.findExportDataVersion(job.getReferenceId());
+        if (dataVersion == null) {
+            return null;
+        }
 
-        Path filePath = directory.resolve(fileName);
-        Files.write(filePath, data);
+        String key = job.getReferenceId() + "|" + job.getType() + "|"
+                + (job.getFormat() != null ? job.getFormat() : ExportFormat.PDF) + "|" + dataVersion;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 
-        log.info("💾 File saved: {}", filePath.toAbsolutePath());
+    private ExportJob findReusableExport(String fingerprint) {
+        if (fingerprint == null) {
+            return null;
+        }
 
-        return filePath;
+        LocalDateTime now = LocalDateTime.now();
+        return exportJobRepository
+                .findFirstByFingerprintAndStatusAndExpiresAtAfterOrderByCompletedAtDesc(
+                        fingerprint, ExportStatus.COMPLETED, now)
+                // Lock hasta el commit; si la limpieza lo liberó antes, se genera de nuevo
+                .flatMap(candidate -> exportJobRepository.lockReusable(candidate.getId(), now))
+                .filter(source -> source.getFilePath() != null
+                        && Files.isReadable(Paths.get(source.getFilePath())))
+                .orElse(null);
+    }
+
+    /**
+     * Completa el job apuntando al archivo de otro. El archivo queda
+     * referenciado por ambos (ver ExportJobRepository.countFileReferences).
+     */
+    private void shareFile(ExportJob job, ExportJob source) {
+        LocalDateTime now = LocalDateTime.now();
+
+        job.setStatus(ExportStatus.COMPLETED);
+        job.setReusedFromJobId(source.getId());
+        job.setFileName(source.getFileName());
+        job.setFilePath(source.getFilePath());
+        job.setFileSize(source.getFileSize());
+        job.setTotalRecords(source.getTotalRecords());
+        job.setProcessedRecords(source.getTotalRecords());
+        job.setProgress(100);
+        job.setExpiresAt(now.plusDays(expirationDays));
+        job.setCompletedAt(now);
+    }
+
+    private ExportJob findOwnedJob(Long jobId, Long userId) {
+        ExportJob job = exportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Export not found"));
+
+        if (!job.getRequestedBy().getId().equals(userId)) {
+            throw new BadRequestException("Export does not belong to user");
+        }
+
+        return job;
+    }
+
+    /**
+     * Ocupa el lugar reservado después del commit; si hay rollback lo devuelve
+     */
+    /**
+     * Si la transacción se revierte el job sigue PENDING y debe seguir en la
+     * cola. Si un worker lo tomó antes del commit, cancel le avisa; si aún no
+     * lo tomó, al tomarlo ya lo ve CANCELLED y lo salta.
+     */
+    private void dequeueAfterCommit(Long jobId, Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.info("🛑 Cancel export {} by user {}: {}", jobId, userId, exportJobQueue.cancel(jobId));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                log.info("🛑 Cancel export {} by user {}: {}", jobId, userId, exportJobQueue.cancel(jobId));
+            }
+        });
+    }
+
+    private void enqueueAfterCommit(Long jobId, Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            exportJobQueue.enqueue(jobId, userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    exportJobQueue.enqueue(jobId, userId);
+                } else {
+                    exportJobQueue.release(userId);
+                }
+            }
+        });
     }
-}
\ No newline at end of file
+}
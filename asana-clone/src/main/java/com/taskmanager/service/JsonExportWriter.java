@@ -0,0 +1,317 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.exception.ResourceNotFoundException;
+import com.taskmanager.model.Process;
+import com.taskmanager.model.Project;
+import com.taskmanager.model.User;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.Repositorios.AttachmentRepository;
+import com.taskmanager.Repositorios.CommentRepository;
+import com.taskmanager.Repositorios.ProjectRepository;
+import com.taskmanager.Repositorios.TaskRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Export JSON del proyecto (también sirve como respaldo / migración)
+ *
+ * Se escribe con un JsonGenerator directo al archivo o a cualquier
+ * OutputStream: metadatos del proyecto y procesos primero (se desacoplan
+ * del contexto de persistencia al terminar), luego tareas, comentarios y
+ * adjuntos en streaming. Nunca se arma el grafo completo en memoria.
+ *
+ * Las subtareas van en "tasks" con su parentTaskId. Las referencias van
+ * por ID (processId, createdById, assigneeIds, usuarios de "members") para
+ * poder importar el archivo; los nombres son solo informativos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JsonExportWriter implements ExportFormatWriter {
+
+    // 2: tareas con processId, createdById, assigneeIds y tags
+    public static final int FORMAT_VERSION = 2;
+
+    private static final Pattern LIST_SPLITTER = Pattern.compile(Pattern.quote(TaskRepository.LIST_SEPARATOR));
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final AttachmentRepository attachmentRepository;
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.JSON;
+    }
+
+    @Override
+    public String getExtension() {
+        return "json";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int write(Long projectId, Path target, ExportExecution execution) throws Exception {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+            return writeTo(out, projectId, execution);
+        }
+    }
+
+    /**
+     * Escribe el proyecto en el stream (no lo cierra).
+     * Requiere una transacción activa para los cursores de streaming.
+     *
+     * @return cantidad de tareas exportadas
+     */
+    public int writeTo(OutputStream out, Long projectId, ExportExecution execution) throws IOException {
+        Project project = projectRepository.findByIdForExport(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+
+        int tasks;
+        int comments;
+        int attachments;
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            gen.writeStartObject();
+            gen.writeNumberField("formatVersion", FORMAT_VERSION);
+            writeDate(gen, "exportedAt", LocalDateTime.now());
+
+            writeProject(gen, project);
+            writeProcesses(gen, project);
+
+            // Desde aquí solo proyecciones: nada queda en el contexto de persistencia
+            entityManager.clear();
+
+            tasks = writeTasks(gen, projectId, execution);
+            comments = writeComments(gen, projectId, execution);
+            attachments = writeAttachments(gen, projectId, execution);
+
+            gen.writeObjectFieldStart("counts");
+            gen.writeNumberField("tasks", tasks);
+            gen.writeNumberField("comments", comments);
+            gen.writeNumberField("attachments", attachments);
+            gen.writeEndObject();
+
+            gen.writeEndObject();
+        }
+
+        log.info("🧾 JSON export for project {}: {} tasks, {} comments, {} attachments",
+                projectId, tasks, comments, attachments);
+        return tasks;
+    }
+
+    private void writeProject(JsonGenerator gen, Project project) throws IOException {
+        gen.writeObjectFieldStart("project");
+        gen.writeNumberField("id", project.getId());
+        gen.writeStringField("name", project.getName());
+        gen.writeStringField("description", project.getDescription());
+        gen.writeStringField("status", project.getStatus() != null ? project.getStatus().name() : null);
+        gen.writeStringField("color", project.getColor());
+        gen.writeBooleanField("archived", Boolean.TRUE.equals(project.getArchived()));
+        writeDate(gen, "deadline", project.getDeadline());
+        writeDate(gen, "createdAt", project.getCreatedAt());
+        writeDate(gen, "updatedAt", project.getUpdatedAt());
+
+        gen.writeFieldName("createdBy");
+        writeUser(gen, project.getCreatedBy());
+
+        gen.writeArrayFieldStart("members");
+        for (User member : project.getMembers()) {
+            writeUser(gen, member);
+        }
+        gen.writeEndArray();
+
+        gen.writeEndObject();
+    }
+
+    private void writeProcesses(JsonGenerator gen, Project project) throws IOException {
+        gen.writeArrayFieldStart("processes");
+        for (Process process : project.getProcesses().stream()
+                .sorted(Comparator.comparing(Process::getPosition, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList()) {
+            gen.writeStartObject();
+            gen.writeNumberField("id", process.getId());
+            gen.writeStringField("name", process.getName());
+            gen.writeStringField("description", process.getDescription());
+            writeNumber(gen, "position", process.getPosition());
+            gen.writeStringField("color", process.getColor());
+            writeNumber(gen, "taskLimit", process.getTaskLimit());
+            gen.writeBooleanField("isCompleted", Boolean.TRUE.equals(process.getIsCompleted()));
+            writeDate(gen, "createdAt", process.getCreatedAt());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private int writeTasks(JsonGenerator gen, Long projectId, ExportExecution execution) throws IOException {
+        int count = 0;
+        gen.writeArrayFieldStart("tasks");
+
+        taskRepository.raiseGroupConcatLimit();
+        try (Stream<TaskRepository.ExportRow> rows = taskRepository.streamExportRows(projectId)) {
+            for (TaskRepository.ExportRow row : (Iterable<TaskRepository.ExportRow>) rows::iterator) {
+                execution.rowWritten();
+
+                gen.writeStartObject();
+                gen.writeNumberField("id", row.getId());
+                writeNumber(gen, "parentTaskId", row.getParentTaskId());
+                gen.writeStringField("title", row.getTitle());
+                gen.writeStringField("description", row.getDescription());
+                gen.writeStringField("status", row.getStatus());
+                gen.writeStringField("priority", row.getPriority());
+                gen.writeNumberField("processId", row.getProcessId());
+                gen.writeStringField("processName", row.getProcessName());
+                writeNumber(gen, "createdById", row.getCreatedById());
+
+                gen.writeArrayFieldStart("assigneeIds");
+                for (String assigneeId : splitList(row.getId(), "assigneeIds", row.getAssigneeIds())) {
+                    gen.writeNumber(Long.parseLong(assigneeId));
+                }
+                gen.writeEndArray();
+
+                gen.writeArrayFieldStart("tags");
+                for (String tag : splitList(row.getId(), "tags", row.getTags())) {
+                    gen.writeString(tag);
+                }
+                gen.writeEndArray();
+
+                writeDate(gen, "startDate", row.getStartDate());
+                writeDate(gen, "dueDate", row.getDueDate());
+                writeDate(gen, "completedAt", row.getCompletedAt());
+                writeNumber(gen, "completionPercentage", row.getCompletionPercentage());
+                writeNumber(gen, "estimatedHours", row.getEstimatedHours());
+                writeNumber(gen, "actualHours", row.getActualHours());
+                writeDate(gen, "createdAt", row.getCreatedAt());
+                writeDate(gen, "updatedAt", row.getUpdatedAt());
+                gen.writeEndObject();
+                count++;
+            }
+        }
+
+        gen.writeEndArray();
+        return count;
+    }
+
+    private int writeComments(JsonGenerator gen, Long projectId, ExportExecution execution) throws IOException {
+        int count = 0;
+        gen.writeArrayFieldStart("comments");
+
+        try (Stream<CommentRepository.ExportRow> rows = commentRepository.streamExportRows(projectId)) {
+            for (CommentRepository.ExportRow row : (Iterable<CommentRepository.ExportRow>) rows::iterator) {
+                execution.checkpoint();
+
+                gen.writeStartObject();
+                gen.writeNumberField("id", row.getId());
+                gen.writeNumberField("taskId", row.getTaskId());
+                writeNumber(gen, "parentCommentId", row.getParentCommentId());
+                gen.writeNumberField("authorId", row.getAuthorId());
+                gen.writeStringField("authorName", row.getAuthorName());
+                gen.writeStringField("content", row.getContent());
+                gen.writeBooleanField("edited", Boolean.TRUE.equals(row.getEdited()));
+                writeDate(gen, "createdAt", row.getCreatedAt());
+                writeDate(gen, "updatedAt", row.getUpdatedAt());
+                gen.writeEndObject();
+                count++;
+            }
+        }
+
+        gen.writeEndArray();
+        return count;
+    }
+
+    private int writeAttachments(JsonGenerator gen, Long projectId, ExportExecution execution) throws IOException {
+        int count = 0;
+        gen.writeArrayFieldStart("attachments");
+
+        try (Stream<AttachmentRepository.ExportRow> rows = attachmentRepository.streamExportRows(projectId)) {
+            for (AttachmentRepository.ExportRow row : (Iterable<AttachmentRepository.ExportRow>) rows::iterator) {
+                execution.checkpoint();
+
+                gen.writeStartObject();
+                gen.writeNumberField("id", row.getId());
+                gen.writeNumberField("taskId", row.getTaskId());
+                gen.writeNumberField("uploadedById", row.getUploadedById());
+                gen.writeStringField("fileName", row.getFileName());
+                gen.writeStringField("mimeType", row.getMimeType());
+                writeNumber(gen, "fileSize", row.getFileSize());
+                gen.writeStringField("fileExtension", row.getFileExtension());
+                gen.writeStringField("description", row.getDescription());
+                gen.writeStringField("fileHash", row.getFileHash());
+                writeDate(gen, "createdAt", row.getCreatedAt());
+                gen.writeEndObject();
+                count++;
+            }
+        }
+
+        gen.writeEndArray();
+        return count;
+    }
+
+    /**
+     * Separa una lista concatenada. Si llegó al tope de GROUP_CONCAT pudo
+     * venir cortada: el export falla en vez de escribir un backup con IDs
+     * o etiquetas incompletas.
+     */
+    private String[] splitList(Long taskId, String field, String value) {
+        if (value == null || value.isEmpty()) {
+            return new String[0];
+        }
+        if (value.length() * 4L >= TaskRepository.EXPORT_GROUP_CONCAT_MAX_LEN
+                && value.getBytes(StandardCharsets.UTF_8).length >= TaskRepository.EXPORT_GROUP_CONCAT_MAX_LEN) {
+            throw new IllegalStateException("Task " + taskId + ": " + field
+                    + " reached group_concat_max_len and may be truncated");
+        }
+        return LIST_SPLITTER.split(value);
+    }
+
+    private void writeUser(JsonGenerator gen, User user) throws IOException {
+        if (user == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeNumberField("id", user.getId());
+        gen.writeStringField("name", user.getFullName());
+        gen.writeStringField("email", user.getEmail());
+        gen.writeEndObject();
+    }
+
+    private void writeDate(JsonGenerator gen, String field, LocalDateTime value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(field, value.toString());
+        } else {
+            gen.writeNullField(field);
+        }
+    }
+
+    private void writeNumber(JsonGenerator gen, String field, Number value) throws IOException {
+        if (value == null) {
+            gen.writeNullField(field);
+        } else if (value instanceof Long number) {
+            gen.writeNumberField(field, number);
+        } else {
+            gen.writeNumberField(field, value.intValue());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.taskmanager.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Migración única de reacciones (chat y mensajes directos)
+ *
+ * Antes las reacciones eran una colección emoji -> usuarios en
+ * chat_message_reactions / direct_message_reactions. Ahora hay una fila
+ * por reacción (chat_reactions / dm_reactions) y los totales por emoji en
+ * chat_reaction_counts / dm_reaction_counts. ddl-auto=update no borra las
+ * tablas viejas: al arrancar se copian sus filas, se recalculan los totales
+ * de esos mensajes y la tabla vieja se renombra a *_migrated para que no
+ * se vuelva a procesar. Todo es idempotente (INSERT IGNORE y totales
+ * recalculados), así que un arranque interrumpido se puede repetir.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyReactionMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Largo de ChatReaction.emoji / DirectMessageReaction.emoji
+    private static final int MAX_EMOJI_LENGTH = 32;
+
+    // La colección vieja podía guardar el Set<Long> serializado en user_id
+    private static final ObjectInputFilter USER_IDS_FILTER = ObjectInputFilter.Config.createFilter(
+            "java.util.HashSet;java.util.LinkedHashSet;java.util.TreeSet;java.lang.Long;java.lang.Number;!*");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Target(String legacyTable, String reactionsTable, String countsTable) {
+    }
+
+    private static final List<Target> TARGETS = List.of(
+            new Target("chat_message_reactions", "chat_reactions", "chat_reaction_counts"),
+            new Target("direct_message_reactions", "dm_reactions", "dm_reaction_counts")
+    );
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        for (Target target : TARGETS) {
+            try {
+                migrate(target);
+            } catch (DataAccessException e) {
+                log.warn("Could not migrate reactions from {}: {}", target.legacyTable(), e.getMessage());
+            }
+        }
+    }
+
+    private void migrate(Target target) {
+        if (!tableExists(target.legacyTable())) {
+            return;
+        }
+
+        String insert = "INSERT IGNORE INTO " + target.reactionsTable()
+                + " (message_id, user_id, emoji, created_at) VALUES (?, ?, ?, NOW())";
+        List<Object[]> batch = new ArrayList<>();
+        int[] totals = new int[2]; // copiadas, descartadas
+
+        jdbcTemplate.query("SELECT message_id, emoji, user_id FROM " + target.legacyTable(), rs -> {
+            long messageId = rs.getLong(1);
+            String emoji = rs.getString(2);
+            List<Long> userIds = readUserIds(rs.getObject(3));
+
+            if (emoji == null || emoji.isEmpty() || emoji.length() > MAX_EMOJI_LENGTH || userIds.isEmpty()) {
+                totals[1]++;
+                return;
+            }
+
+            for (Long userId : userIds) {
+                batch.add(new Object[]{messageId, userId, emoji});
+                totals[0]++;
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+
+        // Totales de los mensajes migrados a partir de las filas individuales
+        jdbcTemplate.update("INSERT INTO " + target.countsTable() + " (message_id, emoji, reaction_count) "
+                + "SELECT r.message_id, r.emoji, COUNT(*) FROM " + target.reactionsTable() + " r "
+                + "WHERE r.message_id IN (SELECT DISTINCT l.message_id FROM " + target.legacyTable() + " l) "
+                + "GROUP BY r.message_id, r.emoji "
+                + "ON DUPLICATE KEY UPDATE reaction_count = VALUES(reaction_count)");
+
+        jdbcTemplate.execute("RENAME TABLE " + target.legacyTable() + " TO " + target.legacyTable() + "_migrated");
+
+        log.info("Migrated {} reactions from {} to {} ({} legacy rows skipped)",
+                totals[0], target.legacyTable(), target.reactionsTable(), totals[1]);
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables "
+                        + "WHERE table_schema = DATABASE() AND table_name = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    /**
+     * user_id puede ser un número o el Set de IDs serializado
+     */
+    private List<Long> readUserIds(Object value) {
+        List<Long> userIds = new ArrayList<>();
+        if (value instanceof Number number) {
+            userIds.add(number.longValue());
+        } else if (value instanceof byte[] bytes) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                in.setObjectInputFilter(USER_IDS_FILTER);
+                if (in.readObject() instanceof Collection<?> ids) {
+                    for (Object id : ids) {
+                        if (id instanceof Number number) {
+                            userIds.add(number.longValue());
+                        }
+                    }
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                log.debug("Unreadable legacy reaction user ids: {}", e.getMessage());
+            }
+        }
+        return userIds;
+    }
+}
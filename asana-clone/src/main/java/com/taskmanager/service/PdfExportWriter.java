@@ -0,0 +1,199 @@
+package com.taskmanager.service;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.taskmanager.exception.ResourceNotFoundException;
+import com.taskmanager.model.Project;
+import com.taskmanager.model.Task;
+import com.taskmanager.model.enums.ExportFormat;
+import com.taskmanager.Repositorios.ProjectRepository;
+import com.taskmanager.Repositorios.TaskRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Reporte PDF del proyecto con iText7, escrito directo al archivo
+ *
+ * El documento usa immediateFlush: cada página terminada se escribe y se
+ * libera. El listado de tareas es una tabla "large" que se llena desde un
+ * cursor de streaming y se vacía cada export.pdf.flush-rows filas, así la
+ * memoria no depende de la cantidad de tareas.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PdfExportWriter implements ExportFormatWriter {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final ProjectRepository projectRepository;
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+
+    @Value("${export.pdf.flush-rows:100}")
+    private int flushRows;
+
+    @Override
+    public ExportFormat getFormat() {
+        return ExportFormat.PDF;
+    }
+
+    @Override
+    public String getExtension() {
+        return "pdf";
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int write(Long projectId, Path target, ExportExecution execution) throws Exception {
+        log.info("📄 Generating PDF for project {}", projectId);
+
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ResourceNotFoundException("Project not found"));
+
+        Map<Task.TaskStatus, Long> statusCount = new EnumMap<>(Task.TaskStatus.class);
+        long totalTasks = 0;
+        for (TaskRepository.StatusCount count : taskRepository.countByStatusForProject(project.getId())) {
+            statusCount.put(count.getStatus(), count.getTotal());
+            totalTasks += count.getTotal();
+        }
+
+        int rows = 0;
+
+        // immediateFlush = true: las páginas completas se escriben al archivo
+        try (Document document = new Document(
+                new PdfDocument(new PdfWriter(target.toFile())), PageSize.A4, true)) {
+
+            // ==================== HEADER ====================
+            document.add(new Paragraph("REPORTE DE PROYECTO")
+                    .setFontSize(20)
+                    .setBold()
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(5));
+
+            document.add(new Paragraph("Fecha: " + LocalDateTime.now().format(DATE_FORMAT))
+                    .setFontSize(10)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20));
+
+            // ==================== INFORMACIÓN DEL PROYECTO ====================
+            addSectionTitle(document, "INFORMACIÓN DEL PROYECTO", 10);
+
+            Table infoTable = new Table(UnitValue.createPercentArray(new float[]{30, 70}))
+                    .useAllAvailableWidth();
+
+            addInfoRow(infoTable, "Nombre", project.getName());
+            addInfoRow(infoTable, "ID", project.getId().toString());
+            addInfoRow(infoTable, "Estado", project.getStatus().getDisplayName());
+            addInfoRow(infoTable, "Descripción", project.getDescription() != null ? project.getDescription() : "N/A");
+            addInfoRow(infoTable, "Creador", project.getCreatedBy().getFullName());
+            addInfoRow(infoTable, "Miembros", String.valueOf(project.getMembers().size()));
+            addInfoRow(infoTable, "Total de Tareas", String.valueOf(totalTasks));
+
+            document.add(infoTable);
+
+            // ==================== ESTADÍSTICAS ====================
+            addSectionTitle(document, "ESTADÍSTICAS", 20);
+
+            Table statsTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
+                    .useAllAvailableWidth();
+
+            for (Task.TaskStatus status : Task.TaskStatus.values()) {
+                addInfoRow(statsTable, status.getDisplayName(), statusCount.getOrDefault(status, 0L) + " tareas");
+            }
+
+            document.add(statsTable);
+
+            // El resto son filas planas: el proyecto ya no hace falta en memoria
+            entityManager.clear();
+
+            // ==================== LISTADO DE TAREAS ====================
+            addSectionTitle(document, "LISTADO DE TAREAS", 20);
+
+            Table taskTable = new Table(UnitValue.createPercentArray(new float[]{8, 34, 14, 12, 20, 12}), true)
+                    .useAllAvailableWidth();
+            for (String header : new String[]{"#", "Tarea", "Estado", "Prioridad", "Asignados", "Fecha Límite"}) {
+                taskTable.addHeaderCell(new Cell()
+                        .add(new Paragraph(header).setBold().setFontSize(9))
+                        .setBackgroundColor(ColorConstants.LIGHT_GRAY));
+            }
+            document.add(taskTable);
+
+            int counter = 0;
+            taskRepository.raiseGroupConcatLimit();
+            try (Stream<TaskRepository.ExportRow> stream =
+                         taskRepository.streamExportRowsGroupedByParent(project.getId())) {
+                for (TaskRepository.ExportRow row : (Iterable<TaskRepository.ExportRow>) stream::iterator) {
+                    execution.rowWritten();
+
+                    int depth = row.getDepth() != null ? row.getDepth() : 0;
+                    boolean subtask = depth > 0;
+                    String number = subtask ? "" : "[" + (++counter) + "]";
+                    String title = subtask ? "• " + row.getTitle() : row.getTitle();
+
+                    // Sangría por nivel, acotada para no comerse la columna
+                    taskTable.addCell(bodyCell(number));
+                    taskTable.addCell(bodyCell(title).setPaddingLeft(2 + 13 * Math.min(depth, 5)));
+                    taskTable.addCell(bodyCell(Task.TaskStatus.valueOf(row.getStatus()).getDisplayName()));
+                    taskTable.addCell(bodyCell(Task.TaskPriority.valueOf(row.getPriority()).getDisplayName()));
+                    taskTable.addCell(bodyCell(row.getAssignees() != null ? row.getAssignees() : "Sin asignar"));
+                    taskTable.addCell(bodyCell(row.getDueDate() != null ? row.getDueDate().format(DATE_FORMAT) : ""));
+
+                    // Vuelca las filas ya maquetadas al archivo
+                    if (++rows % flushRows == 0) {
+                        taskTable.flush();
+                    }
+                }
+            }
+
+            taskTable.complete();
+
+            // ==================== FOOTER ====================
+            document.add(new Paragraph("\nFIN DEL REPORTE")
+                    .setFontSize(10)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginTop(30));
+        }
+
+        return rows;
+    }
+
+    private void addSectionTitle(Document document, String title, float marginTop) {
+        document.add(new Paragraph(title)
+                .setFontSize(14)
+                .setBold()
+                .setMarginTop(marginTop)
+                .setMarginBottom(10));
+    }
+
+    private Cell bodyCell(String text) {
+        return new Cell().add(new Paragraph(text).setFontSize(9));
+    }
+
+    /**
+     * Helper para agregar filas a tablas de información
+     */
+    private void addInfoRow(Table table, String label, String value) {
+        table.addCell(new Cell().add(new Paragraph(label).setBold()).setBackgroundColor(ColorConstants.LIGHT_GRAY));
+        table.addCell(new Cell().add(new Paragraph(value)));
+    }
+}
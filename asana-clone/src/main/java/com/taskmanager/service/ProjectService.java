@@ -45,6 +45,7 @@ public class ProjectService {
     private final NotificationService notificationService;
     private final InvitationMapper invitationMapper;
     private final TaskRepository taskRepository;
+    private final SharedProjectService sharedProjectService;
     public ProjectDTO.Response createProject(ProjectDTO.CreateRequest request, Long createdByUserId) {
         log.info("Creating new project: {} by user ID: {}", request.getName(), createdByUserId);
 
@@ -82,6 +83,7 @@ public class ProjectService {
         }
 
         Project savedProject = projectRepository.save(project);
+        savedProject.getMembers().forEach(member -> sharedProjectService.evictUser(member.getId()));
 
         // Actualizar contador de proyectos en suscripción
         subscriptionService.updateProjectCount(createdByUserId, 1);
@@ -244,6 +246,7 @@ public class ProjectService {
             if (!project.hasMember(responder)) {
                 project.addMember(responder);
                 projectRepository.save(project);
+                sharedProjectService.evictUser(responder.getId());
             } else {
                 // Esto podría pasar si el creador lo añadió manualmente después de enviar la invitación.
                 log.warn("User {} already member of project {}. Skipping addMember.", responder.getEmail(), project.getName());
@@ -303,6 +306,9 @@ public class ProjectService {
 
         Project updated = projectRepository.save(project);
 
+        // El nombre puede aparecer en los proyectos compartidos de los DMs
+        sharedProjectService.evictAll();
+
         return projectMapper.projectToResponse(updated);
     }
 
@@ -443,6 +449,7 @@ public class ProjectService {
         project.addMember(userToAdd);
 
         Project updatedProject = projectRepository.save(project);
+        sharedProjectService.evictUser(userId);
 
         // Registrar actividad
         User requester = userRepository.findById(requestingUserId).orElse(null);
@@ -487,6 +494,7 @@ public class ProjectService {
         project.removeMember(userToRemove);
 
         Project updatedProject = projectRepository.save(project);
+        sharedProjectService.evictUser(userId);
 
         // Registrar actividad
         User requester = userRepository.findById(requestingUserId).orElse(null);
@@ -656,6 +664,7 @@ public void deleteProject(Long id, Long userId) {
 
     // 3. Eliminar el Proyecto Principal
     projectRepository.delete(project);
+    sharedProjectService.evictAll();
 
     // 4. Actualizar contador de suscripción
     if (!project.getArchived()) {
@@ -0,0 +1,99 @@
+package com.taskmanager.service;
+
+import com.taskmanager.Repositorios.ProjectRepository;
+import com.taskmanager.util.CacheEvictionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Proyectos compartidos entre dos usuarios (mensajes directos)
+ *
+ * Se consulta en cada envío y en cada resumen de conversación, por eso el
+ * resultado se guarda en memoria por par de usuarios (sin importar el
+ * orden). ProjectService invalida el caché al cambiar miembros.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SharedProjectService {
+
+    private static final long TTL_MILLIS = 10 * 60_000;
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final ProjectRepository projectRepository;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    // Cambia en cada invalidación: una lectura iniciada antes no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    @Transactional(readOnly = true)
+    public Set<String> getSharedProjectNames(Long userId, Long otherUserId) {
+        String key = pairKey(userId, otherUserId);
+        long now = System.currentTimeMillis();
+
+        Entry cached = cache.get(key);
+        if (cached != null && now - cached.loadedAt < TTL_MILLIS) {
+            return cached.names;
+        }
+
+        long loadGeneration = generation.get();
+        Set<String> names = projectRepository.findSharedProjects(userId, otherUserId).stream()
+                .map(ProjectRepository.SharedProject::getName)
+                .collect(Collectors.toUnmodifiableSet());
+
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.clear();
+        }
+        if (generation.get() == loadGeneration) {
+            cache.put(key, new Entry(names, now));
+        }
+
+        return names;
+    }
+
+    /**
+     * Invalida todos los pares de un usuario (alta o baja en un proyecto).
+     * Se repite tras el commit para descartar lecturas concurrentes.
+     */
+    public void evictUser(Long userId) {
+        CacheEvictionUtil.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            String prefix = userId + ":";
+            String suffix = ":" + userId;
+            cache.keySet().removeIf(key -> key.startsWith(prefix) || key.endsWith(suffix));
+        });
+    }
+
+    /**
+     * Invalida todo (proyecto renombrado o eliminado)
+     */
+    public void evictAll() {
+        CacheEvictionUtil.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            cache.clear();
+        });
+    }
+
+    private String pairKey(Long userId, Long otherUserId) {
+        return Math.min(userId, otherUserId) + ":" + Math.max(userId, otherUserId);
+    }
+
+    private static final class Entry {
+        private final Set<String> names;
+        private final long loadedAt;
+
+        private Entry(Set<String> names, long loadedAt) {
+            this.names = names;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
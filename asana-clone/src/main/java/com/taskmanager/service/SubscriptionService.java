@@ -25,6 +25,7 @@ public class SubscriptionService {
     private final PlanRepository planRepository;
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
+    private final AttachmentRepository attachmentRepository;
     private final SubscriptionMapper subscriptionMapper;
     private final NotificationService notificationService;
 
@@ -81,9 +82,8 @@ public class SubscriptionService {
         freeSubscription.setCurrentProjects(projectRepository.countByCreatedById(userId));
         // Recalcular miembros y storage para la suscripción gratuita temporal
         freeSubscription.setCurrentMembers(subscriptionRepository.countMembersByUserId(userId));
-        // NOTA: No podemos calcular currentStorageUsed sin el repositorio de archivos,
-        // asumimos 0 para el default si no hay lógica de archivos aquí.
-        freeSubscription.setCurrentStorageUsed(0L);
+        // Storage lógico: lo que subió el usuario, aunque el contenido esté deduplicado
+        freeSubscription.setCurrentStorageUsed(attachmentRepository.sumFileSizeByUploaderId(userId));
         return freeSubscription;
     }
 
@@ -181,8 +181,8 @@ public class SubscriptionService {
         if (subscription == null) return true;
 
         Plan plan = subscription.getPlan();
-        // Usar el valor recalculado en getActiveSubscriptionOrDefaultFree si no está persistido
-        long currentStorage = subscription.getCurrentStorageUsed();
+        // Bytes lógicos de adjuntos (el disco real se ve en AttachmentService.getStorageUsage)
+        long currentStorage = attachmentRepository.sumFileSizeByUploaderId(userId);
         long maxStorageBytes = plan.getMaxStorage() * 1024L * 1024L; // MB to bytes
 
         return plan.getMaxStorage() == -1 ||
@@ -388,10 +388,8 @@ public class SubscriptionService {
         Integer currentMembers = subscriptionRepository.countMembersByUserId(userId);
         subscription.setCurrentMembers(currentMembers);
 
-        // NOTE: Asumimos que currentStorageUsed es actualizado por un servicio de archivos
-        // Si no, también debe recalcularse aquí.
-        // long currentStorage = storageService.getUsedStorage(userId);
-        // subscription.setCurrentStorageUsed(currentStorage);
+        // Recalcular storage lógico (Sincronización)
+        subscription.setCurrentStorageUsed(attachmentRepository.sumFileSizeByUploaderId(userId));
 
         subscriptionRepository.save(subscription); // Guardar los contadores actualizados
 
@@ -7,14 +7,29 @@ import com.taskmanager.model.User;
 import com.taskmanager.model.UserBlock;
 import com.taskmanager.Repositorios.UserBlockRepository;
 import com.taskmanager.Repositorios.UserRepository;
+import com.taskmanager.util.CacheEvictionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Bloqueo de usuarios
+ *
+ * La lista de bloqueados de cada usuario se guarda en memoria (se carga la
+ * primera vez que se consulta). La mayoría no bloquea a nadie: su entrada es
+ * un conjunto vacío y cada envío de DM se resuelve sin ir a la base de datos.
+ * blockUser/unblockUser invalidan la entrada del usuario que bloquea.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -25,6 +40,13 @@ public class UserBlockService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
 
+    private static final int MAX_CACHED_USERS = 10_000;
+
+    private final Map<Long, Set<Long>> blockedByUser = new ConcurrentHashMap<>();
+
+    // Cambia en cada invalidación: una carga iniciada antes no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
     public void blockUser(Long blockerId, Long blockedId, String reason) {
         log.info("User {} blocking user {}", blockerId, blockedId);
 
@@ -50,6 +72,7 @@ public class UserBlockService {
                 .build();
 
         blockRepository.save(block);
+        evict(blockerId);
         log.info("User {} blocked successfully", blockedId);
     }
 
@@ -57,6 +80,7 @@ public class UserBlockService {
         log.info("User {} unblocking user {}", blockerId, blockedId);
 
         blockRepository.deleteByBlockerIdAndBlockedId(blockerId, blockedId);
+        evict(blockerId);
         log.info("User {} unblocked successfully", blockedId);
     }
 
@@ -71,6 +95,46 @@ public class UserBlockService {
 
     @Transactional(readOnly = true)
     public boolean isBlocked(Long blockerId, Long blockedId) {
-        return blockRepository.existsByBlockerIdAndBlockedId(blockerId, blockedId);
+        return getBlockedIds(blockerId).contains(blockedId);
+    }
+
+    /**
+     * Quita de otherIds a quienes el usuario bloqueó y a quienes lo bloquearon
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> withoutBlocked(Long userId, Collection<Long> otherIds) {
+        Set<Long> result = new HashSet<>(otherIds);
+        result.removeAll(getBlockedIds(userId));
+        if (!result.isEmpty()) {
+            blockRepository.findBlockerIdsAmong(userId, result).forEach(result::remove);
+        }
+        return result;
+    }
+
+    private Set<Long> getBlockedIds(Long blockerId) {
+        Set<Long> cached = blockedByUser.get(blockerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        List<Long> ids = blockRepository.findBlockedIdsByBlockerId(blockerId);
+        Set<Long> blockedIds = ids.isEmpty() ? Set.of() : Set.copyOf(ids);
+
+        if (blockedByUser.size() >= MAX_CACHED_USERS) {
+            blockedByUser.clear();
+        }
+        if (generation.get() == loadGeneration) {
+            blockedByUser.put(blockerId, blockedIds);
+        }
+
+        return blockedIds;
+    }
+
+    private void evict(Long blockerId) {
+        CacheEvictionUtil.runNowAndAfterCommit(() -> {
+            generation.incrementAndGet();
+            blockedByUser.remove(blockerId);
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.taskmanager.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidación de cachés en memoria que dependen de datos transaccionales
+ * (SharedProjectService, UserBlockService).
+ */
+public final class CacheEvictionUtil {
+
+    private CacheEvictionUtil() {
+        // Clase de utilidad
+    }
+
+    /**
+     * Ejecuta la invalidación ahora y otra vez tras el commit: una lectura
+     * concurrente pudo cargar los datos anteriores entre el cambio y el
+     * commit y volver a dejarlos en la caché.
+     * Sin transacción activa solo se ejecuta una vez.
+     */
+    public static void runNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
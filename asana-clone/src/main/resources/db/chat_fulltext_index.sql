@@ -0,0 +1,13 @@
+-- ===================================================================
+-- Índice FULLTEXT de la búsqueda del chat (N°13)
+--
+-- JPA no puede declarar índices FULLTEXT con @Index y ddl-auto=update no
+-- lo crea. Ejecutar una vez por base MySQL, en una ventana de
+-- mantenimiento: el primer índice FULLTEXT de una tabla InnoDB la
+-- reconstruye y bloquea escrituras mientras dura.
+--
+-- Mientras el índice no exista, ChatSearchService usa LIKE. Detecta el
+-- índice al arrancar: reiniciar la aplicación después de crearlo.
+-- ===================================================================
+
+ALTER TABLE chat_messages ADD FULLTEXT INDEX ft_chat_content (content);
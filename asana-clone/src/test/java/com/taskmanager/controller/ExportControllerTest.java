@@ -0,0 +1,109 @@
+package com.taskmanager.controller;
+
+import com.taskmanager.model.User;
+import com.taskmanager.service.ExportCleanupService;
+import com.taskmanager.service.ExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Descarga de exports: Range / If-Range
+ */
+class ExportControllerTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path tempDir;
+
+    private MockMvc mockMvc;
+    private ExportService.Download download;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = tempDir.resolve("export.csv");
+        Files.writeString(file, CONTENT, StandardCharsets.UTF_8);
+        download = new ExportService.Download(file, "export.csv", CONTENT.length(), 1_700_000_000_000L);
+
+        ExportService exportService = mock(ExportService.class);
+        when(exportService.prepareDownload(anyLong(), anyLong())).thenReturn(download);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ExportController(exportService, mock(ExportCleanupService.class)))
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+
+        User user = User.builder().id(1L).email("user@example.com").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void staleIfRangeReturnsWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/exports/7/download")
+                        .header(HttpHeaders.RANGE, "bytes=5-")
+                        .header(HttpHeaders.IF_RANGE, "\"stale-etag\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void multipleRangesReturnWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/exports/7/download")
+                        .header(HttpHeaders.RANGE, "bytes=0-1,5-6"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void matchingIfRangeReturnsPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/exports/7/download")
+                        .header(HttpHeaders.RANGE, "bytes=5-9")
+                        .header(HttpHeaders.IF_RANGE, download.getETag()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/" + CONTENT.length()))
+                .andExpect(content().string(CONTENT.substring(5, 10)));
+    }
+}
@@ -0,0 +1,177 @@
+package com.taskmanager.service;
+
+import com.taskmanager.exception.BadRequestException;
+import com.taskmanager.model.enums.ExportStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cola de exports: admisión, turnos entre usuarios y cancelación
+ */
+class ExportJobQueueTest {
+
+    // Job que ocupa el único worker hasta que se abre la compuerta
+    private static final long GATE_JOB = 100L;
+    private static final long GATE_USER = 99L;
+
+    private ExportJobQueue queue;
+    private final List<Long> executed = new CopyOnWriteArrayList<>();
+    private final List<Long> stopped = new CopyOnWriteArrayList<>();
+    private final CountDownLatch gateStarted = new CountDownLatch(1);
+    private final CountDownLatch gateOpen = new CountDownLatch(1);
+    private volatile CountDownLatch finished = new CountDownLatch(0);
+
+    @BeforeEach
+    void setUp() {
+        ExportJobRunner runner = mock(ExportJobRunner.class);
+        when(runner.run(any())).thenAnswer(invocation -> {
+            ExportExecution execution = invocation.getArgument(0);
+            executed.add(execution.getJobId());
+            try {
+                if (execution.getJobId() == GATE_JOB) {
+                    gateStarted.countDown();
+                    gateOpen.await(5, TimeUnit.SECONDS);
+                    execution.checkpoint();
+                }
+                return ExportStatus.COMPLETED;
+            } catch (ExportExecution.Stopped e) {
+                stopped.add(execution.getJobId());
+                return ExportStatus.CANCELLED;
+            } finally {
+                finished.countDown();
+            }
+        });
+
+        queue = new ExportJobQueue(runner);
+        ReflectionTestUtils.setField(queue, "workers", 1);
+        ReflectionTestUtils.setField(queue, "queueCapacity", 3);
+        ReflectionTestUtils.setField(queue, "maxActivePerUser", 2);
+        ReflectionTestUtils.setField(queue, "timeoutMinutes", 10L);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateOpen.countDown();
+        queue.stop();
+    }
+
+    @Test
+    void reserveRejectsWhenQueueIsFull() {
+        queue.reserve(1L);
+        queue.reserve(2L);
+        queue.reserve(3L);
+
+        assertThrows(BadRequestException.class, () -> queue.reserve(4L));
+
+        queue.release(2L);
+        assertDoesNotThrow(() -> queue.reserve(4L));
+    }
+
+    @Test
+    void reserveRejectsUserOverActiveLimit() throws Exception {
+        blockWorker();
+
+        // Uno en cola y uno reservado: el tercero supera el límite
+        queue.reserve(1L);
+        queue.enqueue(1L, 1L);
+        queue.reserve(1L);
+
+        assertThrows(BadRequestException.class, () -> queue.reserve(1L));
+        assertDoesNotThrow(() -> queue.reserve(2L));
+
+        queue.release(1L);
+        assertDoesNotThrow(() -> queue.reserve(1L));
+    }
+
+    @Test
+    void runningJobCountsTowardsUserLimit() throws Exception {
+        blockWorker();
+
+        queue.reserve(GATE_USER);
+        assertThrows(BadRequestException.class, () -> queue.reserve(GATE_USER));
+    }
+
+    @Test
+    void releaseWithoutReservationIsIgnored() {
+        queue.release(1L);
+
+        queue.reserve(1L);
+        queue.reserve(2L);
+        queue.reserve(3L);
+        assertThrows(BadRequestException.class, () -> queue.reserve(4L));
+    }
+
+    @Test
+    void usersTakeTurns() throws Exception {
+        blockWorker();
+        finished = new CountDownLatch(4);
+
+        enqueue(1L, 1L);
+        enqueue(2L, 1L);
+        enqueue(3L, 2L);
+        gateOpen.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(GATE_JOB, 1L, 3L, 2L), executed);
+    }
+
+    @Test
+    void cancelQueuedJobDequeuesIt() throws Exception {
+        blockWorker();
+        finished = new CountDownLatch(2);
+
+        enqueue(1L, 1L);
+        assertEquals(ExportJobQueue.CancelResult.DEQUEUED, queue.cancel(1L));
+        enqueue(2L, 1L);
+        gateOpen.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(GATE_JOB, 2L), executed);
+        assertEquals(0, queue.getStats().getQueued());
+    }
+
+    @Test
+    void cancelRunningJobSignalsIt() throws Exception {
+        blockWorker();
+        finished = new CountDownLatch(1);
+
+        assertEquals(ExportJobQueue.CancelResult.SIGNALLED, queue.cancel(GATE_JOB));
+        gateOpen.countDown();
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(GATE_JOB), stopped);
+    }
+
+    @Test
+    void cancelUnknownJobIsNotFound() {
+        assertEquals(ExportJobQueue.CancelResult.NOT_FOUND, queue.cancel(42L));
+        assertFalse(queue.signal(42L));
+    }
+
+    private void blockWorker() throws InterruptedException {
+        enqueue(GATE_JOB, GATE_USER);
+        assertTrue(gateStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    private void enqueue(Long jobId, Long userId) {
+        queue.reserve(userId);
+        queue.enqueue(jobId, userId);
+    }
+}
@@ -110,9 +110,9 @@ const ChatPage = () => {
       // Aseguramos que otrosUserId no es nulo o 0
       if (!otherUserId) return;
       
-      const data = await fetchAPI(`${API_URL}/direct-messages/conversations/${otherUserId}`);
-      // Invertir el orden de los mensajes para que el más reciente esté al final
-      setMessages(data ? data.reverse() : []); 
+      const data = await fetchAPI(`${API_URL}/direct-messages/conversations/${otherUserId}/messages`);
+      // La página ya viene en orden cronológico (el más reciente al final)
+      setMessages(data?.messages ?? []);
     } catch (error) {
       console.error('Error loading messages:', error);
       showAlert('Error al cargar mensajes.');
@@ -1,4 +1,4 @@
-import React from 'react';
+import React, { useEffect, useState } from 'react';
 import { useQuery, useMutation, useQueryClient } from '@tanstack/react-query';
 import exportService from '../services/exportService';
 import projectService from '../services/projectService';
@@ -107,10 +107,19 @@ const ProgressBar = ({ value, max = 100, size = 'md', showLabel = true }) => {
   );
 };
 
+const EXPORT_FORMATS = [
+  { value: 'PDF', label: 'PDF' },
+  { value: 'CSV', label: 'CSV' },
+  { value: 'EXCEL', label: 'Excel' },
+  { value: 'JSON', label: 'JSON' },
+];
+
 // ===================================
 // LISTA DE PROYECTOS PARA EXPORTAR
 // ===================================
 const ProjectExportList = ({ onExportSuccess }) => {
+  const [format, setFormat] = useState('PDF');
+
   const { data: projects, isLoading: isProjectsLoading } = useQuery({
     queryKey: ['myProjectsToExport'],
     queryFn: () => projectService.getMyProjects(),
@@ -131,12 +140,25 @@ const ProjectExportList = ({ onExportSuccess }) => {
     }
   });
 
+  const bundleMutation = useMutation({
+    mutationFn: () => exportService.requestBundleExport(format),
+    onSuccess: (data) => {
+      toast.success(`✅ Exportación de todos los proyectos solicitada (Job #${data.id})`);
+      queryClient.invalidateQueries(['exports']);
+      onExportSuccess();
+    },
+    onError: (error) => {
+      const errorMsg = error.response?.data?.message || error.message || 'Error desconocido';
+      toast.error(`❌ Error: ${errorMsg}`);
+    }
+  });
+
   const handleRequestExport = (projectId, projectName) => {
-    toast.loading(`⏳ Generando PDF para "${projectName}"...`, { id: 'export-loading' });
+    toast.loading(`⏳ Generando ${format} para "${projectName}"...`, { id: 'export-loading' });
     
     const request = {
       type: 'PROJECT_FULL',
-      format: 'PDF',
+      format,
       referenceId: projectId,
     };
     
@@ -164,9 +186,33 @@ const ProjectExportList = ({ onExportSuccess }) => {
 
   return (
     <div className="space-y-4">
-      <h2 className="text-xl font-semibold border-b pb-2 mb-4 text-gray-700">
-        📁 Proyectos Disponibles para Exportación
-      </h2>
+      <div className="flex items-center justify-between border-b pb-2 mb-4">
+        <h2 className="text-xl font-semibold text-gray-700">
+          📁 Proyectos Disponibles para Exportación
+        </h2>
+        <div className="flex items-center gap-3">
+          <label className="text-sm text-gray-600 flex items-center gap-2">
+            Formato
+            <select
+              value={format}
+              onChange={(e) => setFormat(e.target.value)}
+              className="border border-gray-300 rounded-lg px-2 py-1 text-sm"
+            >
+              {EXPORT_FORMATS.map((option) => (
+                <option key={option.value} value={option.value}>{option.label}</option>
+              ))}
+            </select>
+          </label>
+          <Button
+            icon={Download}
+            onClick={() => bundleMutation.mutate()}
+            disabled={bundleMutation.isLoading}
+            variant="secondary"
+          >
+            {bundleMutation.isLoading ? 'Procesando...' : 'Todos (ZIP)'}
+          </Button>
+        </div>
+      </div>
       {projects.map((project) => (
         <Card key={project.id} className="p-4 flex items-center justify-between shadow-sm hover:shadow-md transition">
           <div className='flex-1 min-w-0'>
@@ -183,7 +229,7 @@ const ProjectExportList = ({ onExportSuccess }) => {
             variant="primary"
             className="ml-4 flex-shrink-0"
           >
-            {exportMutation.isLoading ? 'Procesando...' : 'Exportar PDF'}
+            {exportMutation.isLoading ? 'Procesando...' : `Exportar ${format}`}
           </Button>
         </Card>
       ))}
@@ -195,14 +241,64 @@ const ProjectExportList = ({ onExportSuccess }) => {
 // PÁGINA PRINCIPAL
 // ===================================
 const ExportsPage = () => {
+  const [isStreaming, setIsStreaming] = useState(false);
+
   const { data: exports, isLoading, error } = useQuery({
     queryKey: ['exports'],
     queryFn: exportService.getMyExports,
-    refetchInterval: 5000, // Refrescar cada 5 segundos para actualizar el progreso
+    // Con el stream de progreso activo el sondeo es solo un respaldo
+    refetchInterval: isStreaming ? 30000 : 5000,
   });
 
   const queryClient = useQueryClient();
 
+  // 📡 Progreso en vivo por SSE (se reconecta si el stream se corta)
+  useEffect(() => {
+    const controller = new AbortController();
+    let retryTimer;
+
+    const handleProgress = (progress) => {
+      queryClient.setQueryData(['exports'], (current) =>
+        current?.map((job) =>
+          job.id === progress.jobId
+            ? {
+                ...job,
+                status: progress.status,
+                progress: progress.progress,
+                processedRecords: progress.processedRecords,
+              }
+            : job
+        )
+      );
+
+      // Estado final: traer archivo, tamaño y vencimiento desde el servidor
+      if (progress.status !== 'PROCESSING') {
+        queryClient.invalidateQueries(['exports']);
+      }
+    };
+
+    const connect = async () => {
+      try {
+        setIsStreaming(true);
+        await exportService.streamProgress(handleProgress, controller.signal);
+      } catch (err) {
+        if (controller.signal.aborted) return;
+        console.warn('Export progress stream error:', err);
+      }
+      setIsStreaming(false);
+      if (!controller.signal.aborted) {
+        retryTimer = setTimeout(connect, 5000);
+      }
+    };
+
+    connect();
+
+    return () => {
+      controller.abort();
+      clearTimeout(retryTimer);
+    };
+  }, [queryClient]);
+
   const handleDownload = async (exportJob) => {
     try {
       toast.loading('⬇️ Descargando archivo...', { id: 'download' });
@@ -225,12 +321,24 @@ const ExportsPage = () => {
     }
   };
 
+  const handleCancel = async (exportJob) => {
+    try {
+      await exportService.cancelExport(exportJob.id);
+      toast.success(`🛑 Exportación #${exportJob.id} cancelada`);
+      queryClient.invalidateQueries(['exports']);
+    } catch (error) {
+      const errorMsg = error.response?.data?.message || error.message || 'Error desconocido';
+      toast.error(`❌ No se pudo cancelar: ${errorMsg}`);
+    }
+  };
+
   const getStatusBadge = (status) => {
     const badges = {
       PENDING: { variant: 'default', icon: Clock, text: 'Pendiente' },
       PROCESSING: { variant: 'warning', icon: Clock, text: 'Procesando' },
       COMPLETED: { variant: 'success', icon: CheckCircle, text: 'Completado' },
       FAILED: { variant: 'danger', icon: XCircle, text: 'Fallido' },
+      CANCELLED: { variant: 'default', icon: XCircle, text: 'Cancelado' },
       EXPIRED: { variant: 'default', icon: FileWarning, text: 'Expirado' },
     };
     return badges[status] || badges.PENDING;
@@ -337,6 +445,16 @@ const ExportsPage = () => {
                   </div>
 
                   {/* Acciones */}
+                  {(exportJob.status === 'PENDING' || exportJob.status === 'PROCESSING') && (
+                    <Button
+                      icon={XCircle}
+                      onClick={() => handleCancel(exportJob)}
+                      variant="secondary"
+                      className="flex-shrink-0"
+                    >
+                      Cancelar
+                    </Button>
+                  )}
                   {exportJob.status === 'COMPLETED' && !exportJob.isExpired && (
                     <Button
                       icon={Download}
@@ -16,11 +16,25 @@ const chatService = {
   },
 
   /**
-   * Obtener mensajes
-   * GET /api/projects/{projectId}/chat/messages
+   * Obtener mensajes (paginación por cursor)
+   * GET /api/projects/{projectId}/chat/messages?before=&after=&size=
+   * Devuelve los mensajes en orden cronológico
    */
-  getMessages: async (projectId) => {
-    const response = await api.get(`/projects/${projectId}/chat/messages`);
+  getMessages: async (projectId, { before, after, size } = {}) => {
+    const response = await api.get(`/projects/${projectId}/chat/messages`, {
+      params: { before, after, size },
+    });
+    return response.data.messages;
+  },
+
+  /**
+   * Obtener una página de mensajes con sus cursores
+   * { messages, beforeCursor, afterCursor, hasMore }
+   */
+  getMessagesPage: async (projectId, { before, after, size } = {}) => {
+    const response = await api.get(`/projects/${projectId}/chat/messages`, {
+      params: { before, after, size },
+    });
     return response.data;
   },
 
@@ -32,16 +46,18 @@ const chatService = {
     const response = await api.get(`/projects/${projectId}/chat/messages/recent`, {
       params: { limit },
     });
-    return response.data;
+    return response.data.messages;
   },
 
   /**
    * Obtener respuestas de un mensaje (hilo)
    * GET /api/projects/{projectId}/chat/messages/{id}/replies
    */
-  getMessageReplies: async (projectId, messageId) => {
-    const response = await api.get(`/projects/${projectId}/chat/messages/${messageId}/replies`);
-    return response.data;
+  getMessageReplies: async (projectId, messageId, after) => {
+    const response = await api.get(`/projects/${projectId}/chat/messages/${messageId}/replies`, {
+      params: { after },
+    });
+    return response.data.messages;
   },
 
   /**
@@ -88,17 +104,18 @@ const chatService = {
    */
   getPinnedMessages: async (projectId) => {
     const response = await api.get(`/projects/${projectId}/chat/messages/pinned`);
-    return response.data;
+    return response.data.messages;
   },
 
   /**
    * Buscar en el chat
    * GET /api/projects/{projectId}/chat/messages/search
    */
-  searchMessages: async (projectId, query) => {
+  searchMessages: async (projectId, query, { cursor, size } = {}) => {
     const response = await api.get(`/projects/${projectId}/chat/messages/search`, {
-      params: { query },
+      params: { keyword: query, cursor, size },
     });
+    // { hits: [{ message, score, snippet }], nextCursor, hasMore }
     return response.data;
   },
 };
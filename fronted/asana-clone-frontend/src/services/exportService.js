@@ -26,6 +26,19 @@ const exportService = {
     return exportService.requestProjectExport(projectId, exportData);
   },
 
+  /**
+   * Exportar varios proyectos en un ZIP (sin projectIds: todos mis proyectos)
+   * POST /api/exports/bundle
+   */
+  requestBundleExport: async (format, projectIds = []) => {
+    const response = await api.post('/exports/bundle', {
+      type: 'PROJECTS_BUNDLE',
+      format,
+      projectIds,
+    });
+    return response.data;
+  },
+
   /**
    * Exportar datos de usuario (GDPR)
    * POST /api/exports/user-data
@@ -76,6 +89,54 @@ const exportService = {
     return response.data;
   },
 
+  /**
+   * Progreso en vivo de mis exports (Server-Sent Events)
+   * GET /api/exports/progress/stream
+   *
+   * Se usa fetch en lugar de EventSource para enviar el JWT en el header.
+   * La promesa termina cuando el servidor cierra el stream o se aborta.
+   */
+  streamProgress: async (onProgress, signal) => {
+    const token = localStorage.getItem('token');
+    const response = await fetch('/api/exports/progress/stream', {
+      headers: {
+        Accept: 'text/event-stream',
+        ...(token ? { Authorization: `Bearer ${token}` } : {}),
+      },
+      signal,
+    });
+
+    if (!response.ok || !response.body) {
+      throw new Error(`Progress stream failed: ${response.status}`);
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    while (true) {
+      const { value, done } = await reader.read();
+      if (done) return;
+
+      buffer += decoder.decode(value, { stream: true });
+      const events = buffer.split('\n\n');
+      buffer = events.pop();
+
+      events.forEach((block) => {
+        const lines = block.split('\n');
+        const event = lines.find((line) => line.startsWith('event:'))?.slice(6).trim();
+        const data = lines
+          .filter((line) => line.startsWith('data:'))
+          .map((line) => line.slice(5))
+          .join('\n');
+
+        if (event === 'progress' && data) {
+          onProgress(JSON.parse(data));
+        }
+      });
+    }
+  },
+
   /**
    * Exportación rápida de tareas
    * GET /api/projects/{projectId}/tasks/export